@@ -0,0 +1,87 @@
+package oop.ex6.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * builds legal s-java files of a given number of methods for the benchmarks
+ */
+public class BenchmarkInputs {
+    /**
+     * the global variables at the start of every file
+     */
+    private static String[] GLOBALS = {
+            "int count = 0;",
+            "final double RATE = 1.5;",
+            "boolean isOn = true;",
+            "String name = \"bench\";",
+            "char c = 'b';",
+            ""
+    };
+    /**
+     * the lines of a method, where %d stands for the number of the method and %s for the name of the
+     * method it calls
+     */
+    private static String[] METHOD = {
+            "void method%d(int a, String s, final boolean flag) {",
+            "// a comment line",
+            "    int x = 5, y;",
+            "    double d = x;",
+            "    y = a;",
+            "    if (flag || isOn && true) {",
+            "        while (d || -2.5) {",
+            "            d = RATE;",
+            "            %s(y, s, false);",
+            "        }",
+            "    }",
+            "    return;",
+            "}",
+            ""
+    };
+    /**
+     * the number of methods in a small file
+     */
+    public static int SMALL = 10;
+    /**
+     * the number of methods in a medium file
+     */
+    public static int MEDIUM = 1000;
+    /**
+     * the number of methods in a huge file
+     */
+    public static int HUGE = 100000;
+
+    /**
+     * @param methods - the number of methods of the file
+     * @return - the lines of a legal file with the given number of methods, each calling the one before
+     * it
+     */
+    public static List<String> file(int methods) {
+        List<String> lines = new ArrayList<>(GLOBALS.length + methods * METHOD.length);
+        for (String global : GLOBALS) {
+            lines.add(global);
+        }
+        for (int i = 0; i < methods; i++) {
+            String callee = "method" + (i == 0 ? i : i - 1);
+            for (String line : METHOD) {
+                lines.add(line.replace("%d", Integer.toString(i)).replace("%s", callee));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @param name - the name of a size, small, medium or huge
+     * @return - the number of methods of a file of that size
+     */
+    public static int methods(String name) {
+        switch (name) {
+            case "small":
+                return SMALL;
+            case "medium":
+                return MEDIUM;
+            default:
+                return HUGE;
+        }
+    }
+}
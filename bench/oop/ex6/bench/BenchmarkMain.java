@@ -0,0 +1,29 @@
+package oop.ex6.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * runs the benchmarks with the allocation profiler, which adds the bytes allocated per operation
+ * (gc.alloc.rate.norm) to each result
+ */
+public class BenchmarkMain {
+    /**
+     * @param args - patterns of the benchmarks to run, all of them if there are none
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0) {
+            options.include(BenchmarkMain.class.getPackage().getName());
+        }
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        Options built = options.addProfiler(GCProfiler.class).build();
+        new Runner(built).run();
+    }
+}
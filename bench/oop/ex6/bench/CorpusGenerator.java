@@ -0,0 +1,630 @@
+package oop.ex6.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * generates legal s-java files, and illegal ones with a single error in them, from a seed. the same seed
+ * and settings always give the same files. the files use every construct the factories accept - all of
+ * the types, final variables, declarations of a few variables in one line, assignments, parameters,
+ * calls, nested if and while blocks with conditions of a few operands, comments and empty lines
+ */
+public class CorpusGenerator {
+    /**
+     * the kinds of errors put in illegal files
+     */
+    public enum Error {
+        TYPE_MISMATCH,
+        UNDECLARED_VARIABLE,
+        FINAL_ASSIGNMENT,
+        UNINITIALIZED_FINAL,
+        UNINITIALIZED_VALUE,
+        DUPLICATE_NAME,
+        ILLEGAL_CONDITION,
+        UNKNOWN_METHOD,
+        WRONG_ARGUMENTS,
+        MISSING_RETURN,
+        GLOBAL_RETURN,
+        UNBALANCED_BRACKETS,
+        MISSING_SEMICOLON,
+        NESTED_METHOD
+    }
+
+    /**
+     * the names of the types, by their index
+     */
+    private static String[] TYPE_NAMES = {"int", "double", "boolean", "String", "char"};
+    /**
+     * int
+     */
+    private static int INT = 0;
+    /**
+     * double
+     */
+    private static int DOUBLE = 1;
+    /**
+     * boolean
+     */
+    private static int BOOLEAN = 2;
+    /**
+     * String
+     */
+    private static int STRING = 3;
+    /**
+     * char
+     */
+    private static int CHAR = 4;
+    /**
+     * the words of string values
+     */
+    private static String[] WORDS = {"alpha", "beta", "gamma", "delta", "s-java", "x y", "42"};
+    /**
+     * the indentation of a single scope
+     */
+    private static String INDENT = "    ";
+    /**
+     * the most parameters of a method
+     */
+    private static int MAX_PARAMETERS = 4;
+    /**
+     * the most variables declared in a single line
+     */
+    private static int MAX_DECLARED = 3;
+    /**
+     * the chance of a variable to be final
+     */
+    private static double FINAL_CHANCE = 0.2;
+    /**
+     * the chance of a variable which isn't final to be declared without a value
+     */
+    private static double NO_VALUE_CHANCE = 0.25;
+    /**
+     * the chance of a value to be a variable rather than a literal, when there is one to use
+     */
+    private static double VARIABLE_VALUE_CHANCE = 0.5;
+    /**
+     * the chance of a line to be a comment or an empty line
+     */
+    private static double COMMENT_CHANCE = 0.1;
+    /**
+     * the chance of a block to end with a return statement
+     */
+    private static double RETURN_CHANCE = 0.2;
+
+    /**
+     * the generator of the choices
+     */
+    private Random random;
+    /**
+     * the number of methods of a file
+     */
+    private int methods = 10;
+    /**
+     * the number of global variables of a file
+     */
+    private int globals = 5;
+    /**
+     * the deepest nesting of if and while blocks in a method
+     */
+    private int depth = 2;
+    /**
+     * the number of variables declared at the start of each scope
+     */
+    private int locals = 3;
+    /**
+     * the number of statements in each scope after its declarations
+     */
+    private int statements = 4;
+    /**
+     * the chance of a statement to be a call to a method
+     */
+    private double callDensity = 0.2;
+    /**
+     * the most operands of a condition
+     */
+    private int conditionOperands = 3;
+
+    /**
+     * the visible variables, the last list is the innermost scope
+     */
+    private List<List<Variable>> scopes;
+    /**
+     * the types of the parameters of each method
+     */
+    private List<int[]> signatures;
+    /**
+     * the lines of the file being generated
+     */
+    private List<String> lines;
+    /**
+     * the row of the declaration line of each method, starting at zero
+     */
+    private List<Integer> methodRows;
+    /**
+     * the number of variables named so far
+     */
+    private int names;
+
+    /**
+     * a variable visible where a line is generated
+     */
+    private static class Variable {
+        /**
+         * the name of the variable
+         */
+        private String name;
+        /**
+         * the type of the variable
+         */
+        private int type;
+        /**
+         * true if the variable is final
+         */
+        private boolean isFinal;
+        /**
+         * true if the variable has a value
+         */
+        private boolean isInitialized;
+
+        /**
+         * @param name          - the name of the variable
+         * @param type          - the type of the variable
+         * @param isFinal       - true if the variable is final
+         * @param isInitialized - true if the variable has a value
+         */
+        private Variable(String name, int type, boolean isFinal, boolean isInitialized) {
+            this.name = name;
+            this.type = type;
+            this.isFinal = isFinal;
+            this.isInitialized = isInitialized;
+        }
+    }
+
+    /**
+     * @param seed - the seed of the choices
+     */
+    public CorpusGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * @param methods - the number of methods of a file
+     */
+    public void setMethods(int methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * @param globals - the number of global variables of a file
+     */
+    public void setGlobals(int globals) {
+        this.globals = globals;
+    }
+
+    /**
+     * @param depth - the deepest nesting of if and while blocks in a method
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * @param locals - the number of variables declared at the start of each scope
+     */
+    public void setLocals(int locals) {
+        this.locals = locals;
+    }
+
+    /**
+     * @param statements - the number of statements in each scope after its declarations, which sets
+     *                   the number of lines of a method together with the depth
+     */
+    public void setStatements(int statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * @param callDensity - the chance of a statement to be a call to a method
+     */
+    public void setCallDensity(double callDensity) {
+        this.callDensity = callDensity;
+    }
+
+    /**
+     * @param conditionOperands - the most operands of a condition
+     */
+    public void setConditionOperands(int conditionOperands) {
+        this.conditionOperands = conditionOperands;
+    }
+
+    /**
+     * @return - the lines of a new legal file
+     */
+    public List<String> generate() {
+        lines = new ArrayList<>();
+        methodRows = new ArrayList<>();
+        scopes = new ArrayList<>();
+        signatures = new ArrayList<>();
+        names = 0;
+        scopes.add(new ArrayList<>());
+        for (int i = 0; i < globals; i++) {
+            declaration("");
+        }
+        for (int i = 0; i < globals / 2; i++) {
+            assignment("");
+        }
+        for (int i = 0; i < methods; i++) {
+            int[] parameters = new int[random.nextInt(MAX_PARAMETERS + 1)];
+            for (int j = 0; j < parameters.length; j++) {
+                parameters[j] = random.nextInt(TYPE_NAMES.length);
+            }
+            signatures.add(parameters);
+        }
+        for (int i = 0; i < methods; i++) {
+            lines.add("");
+            method(i);
+        }
+        return lines;
+    }
+
+    /**
+     * @param error - the kind of the error
+     * @return - the lines of a new file with a single error of the given kind
+     */
+    public List<String> generateIllegal(Error error) {
+        generate();
+        int method = random.nextInt(methodRows.size());
+        int row = methodRows.get(method) + 1; // the first line of the body of the method
+        String indent = INDENT;
+        switch (error) {
+            case TYPE_MISMATCH:
+                lines.add(row, indent + "int bad = \"text\";");
+                break;
+            case UNDECLARED_VARIABLE:
+                lines.add(row, indent + "undeclared = 5;");
+                break;
+            case FINAL_ASSIGNMENT:
+                lines.addAll(row, List.of(indent + "final int bad = 1;", indent + "bad = 2;"));
+                break;
+            case UNINITIALIZED_FINAL:
+                lines.add(row, indent + "final double bad;");
+                break;
+            case UNINITIALIZED_VALUE:
+                lines.addAll(row, List.of(indent + "int bad;", indent + "int worse = bad;"));
+                break;
+            case DUPLICATE_NAME:
+                lines.addAll(row, List.of(indent + "int bad = 1;", indent + "char bad = 'b';"));
+                break;
+            case ILLEGAL_CONDITION:
+                lines.addAll(row, List.of(indent + "if (\"text\") {", indent + "}"));
+                break;
+            case UNKNOWN_METHOD:
+                lines.add(row, indent + "undeclared();");
+                break;
+            case WRONG_ARGUMENTS:
+                String arguments = wrongArguments(signatures.get(method));
+                lines.add(row, indent + "method" + method + "(" + arguments + ");");
+                break;
+            case MISSING_RETURN:
+                lines.remove(methodEnd(method) - 1);
+                break;
+            case GLOBAL_RETURN:
+                lines.add(methodRows.get(0), "return;");
+                break;
+            case UNBALANCED_BRACKETS:
+                lines.remove(methodEnd(method));
+                break;
+            case MISSING_SEMICOLON:
+                lines.add(row, indent + "int bad = 5");
+                break;
+            default: // a method declared inside another
+                lines.addAll(row, List.of(indent + "void inner() {", indent + INDENT + "return;",
+                        indent + "}"));
+        }
+        return lines;
+    }
+
+    /**
+     * writes files to the given directory
+     *
+     * @param directory - the directory to write to, created if it doesn't exist
+     * @param count     - the number of legal files, and of illegal files
+     * @throws IOException
+     */
+    public void write(Path directory, int count) throws IOException {
+        Files.createDirectories(directory);
+        Error[] errors = Error.values();
+        for (int i = 0; i < count; i++) {
+            Files.write(directory.resolve(String.format("legal_%05d.sjava", i)), generate());
+            Error error = errors[i % errors.length];
+            Files.write(directory.resolve(String.format("illegal_%05d_%s.sjava", i,
+                    error.name().toLowerCase())), generateIllegal(error));
+        }
+    }
+
+    /**
+     * generates a method
+     *
+     * @param method - the index of the method
+     */
+    private void method(int method) {
+        methodRows.add(lines.size());
+        scopes.add(new ArrayList<>());
+        int[] types = signatures.get(method);
+        StringBuilder parameters = new StringBuilder();
+        for (int i = 0; i < types.length; i++) {
+            boolean isFinal = random.nextDouble() < FINAL_CHANCE;
+            String name = newName();
+            scopes.get(scopes.size() - 1).add(new Variable(name, types[i], isFinal, true));
+            parameters.append(i > 0 ? ", " : "").append(isFinal ? "final " : "")
+                    .append(TYPE_NAMES[types[i]]).append(' ').append(name);
+        }
+        lines.add("void method" + method + "(" + parameters + ") {");
+        scopeBody(INDENT, depth);
+        lines.add(INDENT + "return;");
+        lines.add("}");
+        scopes.remove(scopes.size() - 1);
+    }
+
+    /**
+     * generates the declarations and statements of the innermost scope
+     *
+     * @param indent - the indentation of the lines of the scope
+     * @param depth  - the number of blocks that may still be nested in the scope
+     */
+    private void scopeBody(String indent, int depth) {
+        for (int i = 0; i < locals; i++) {
+            comment();
+            declaration(indent);
+        }
+        for (int i = 0; i < statements; i++) {
+            comment();
+            if (random.nextDouble() < callDensity) {
+                call(indent);
+            } else if (depth > 0 && random.nextBoolean()) {
+                block(indent, depth);
+            } else if (!assignment(indent)) {
+                declaration(indent);
+            }
+        }
+    }
+
+    /**
+     * generates an if or while block
+     *
+     * @param indent - the indentation of the block line
+     * @param depth  - the number of blocks that may still be nested, including this one
+     */
+    private void block(String indent, int depth) {
+        lines.add(indent + (random.nextBoolean() ? "if" : "while") + " (" + condition() + ") {");
+        scopes.add(new ArrayList<>());
+        scopeBody(indent + INDENT, depth - 1);
+        if (random.nextDouble() < RETURN_CHANCE) {
+            lines.add(indent + INDENT + "return;");
+        }
+        scopes.remove(scopes.size() - 1);
+        lines.add(indent + "}");
+    }
+
+    /**
+     * @return - a legal condition of one or more operands
+     */
+    private String condition() {
+        int operands = 1 + random.nextInt(conditionOperands);
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                condition.append(random.nextBoolean() ? " || " : " && ");
+            }
+            condition.append(value(BOOLEAN));
+        }
+        return condition.toString();
+    }
+
+    /**
+     * generates a declaration of one or more variables of the same type in the innermost scope
+     *
+     * @param indent - the indentation of the line
+     */
+    private void declaration(String indent) {
+        int type = random.nextInt(TYPE_NAMES.length);
+        boolean isFinal = random.nextDouble() < FINAL_CHANCE;
+        int count = 1 + random.nextInt(MAX_DECLARED);
+        List<Variable> declared = new ArrayList<>();
+        StringBuilder line = new StringBuilder(indent).append(isFinal ? "final " : "")
+                .append(TYPE_NAMES[type]).append(' ');
+        for (int i = 0; i < count; i++) {
+            boolean hasValue = isFinal || random.nextDouble() >= NO_VALUE_CHANCE;
+            Variable variable = new Variable(newName(), type, isFinal, hasValue);
+            line.append(i > 0 ? ", " : "").append(variable.name);
+            if (hasValue) {
+                line.append(" = ").append(value(type));
+            }
+            declared.add(variable);
+        }
+        lines.add(line.append(';').toString());
+        scopes.get(scopes.size() - 1).addAll(declared);
+    }
+
+    /**
+     * generates an assignment to a variable which is not final
+     *
+     * @param indent - the indentation of the line
+     * @return - false if there is no variable to assign to
+     */
+    private boolean assignment(String indent) {
+        List<Variable> targets = new ArrayList<>();
+        for (List<Variable> scope : scopes) {
+            for (Variable variable : scope) {
+                if (!variable.isFinal) {
+                    targets.add(variable);
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            return false;
+        }
+        Variable target = targets.get(random.nextInt(targets.size()));
+        lines.add(indent + target.name + " = " + value(target.type) + ";");
+        if (scopes.get(scopes.size() - 1).contains(target)) { // a value given in an inner block may not last
+            target.isInitialized = true;
+        }
+        return true;
+    }
+
+    /**
+     * generates a call to a method
+     *
+     * @param indent - the indentation of the line
+     */
+    private void call(String indent) {
+        int method = random.nextInt(signatures.size());
+        StringBuilder arguments = new StringBuilder();
+        for (int type : signatures.get(method)) {
+            arguments.append(arguments.length() > 0 ? ", " : "").append(value(type));
+        }
+        lines.add(indent + "method" + method + "(" + arguments + ");");
+    }
+
+    /**
+     * adds a comment or an empty line, by chance
+     */
+    private void comment() {
+        if (random.nextDouble() < COMMENT_CHANCE) {
+            lines.add(random.nextBoolean() ? "" : "// line " + lines.size());
+        }
+    }
+
+    /**
+     * @param type - the type to give a value to
+     * @return - a literal or a variable with a value, that can be given to the type
+     */
+    private String value(int type) {
+        if (random.nextDouble() < VARIABLE_VALUE_CHANCE) {
+            List<Variable> sources = new ArrayList<>();
+            for (List<Variable> scope : scopes) {
+                for (Variable variable : scope) {
+                    if (variable.isInitialized && isAssignable(type, variable.type)) {
+                        sources.add(variable);
+                    }
+                }
+            }
+            if (!sources.isEmpty()) {
+                return sources.get(random.nextInt(sources.size())).name;
+            }
+        }
+        return literal(type == BOOLEAN ? random.nextInt(BOOLEAN + 1) : type);
+    }
+
+    /**
+     * @param type - the type of the literal
+     * @return - a literal of the type
+     */
+    private String literal(int type) {
+        switch (type) {
+            case 0: // int
+                return Integer.toString(random.nextInt(2001) - 1000);
+            case 1: // double
+                return (random.nextBoolean() ? "-" : "") + random.nextInt(100) + "." + random.nextInt(100);
+            case 2: // boolean
+                return random.nextBoolean() ? "true" : "false";
+            case 3: // String
+                return "\"" + WORDS[random.nextInt(WORDS.length)] + "\"";
+            default: // char
+                return "'" + (char) ('a' + random.nextInt(26)) + "'";
+        }
+    }
+
+    /**
+     * @param target - the type given a value
+     * @param source - the type of the value
+     * @return - true if a value of the source type can be given to the target type
+     */
+    private static boolean isAssignable(int target, int source) {
+        return target == source || target == DOUBLE && source == INT ||
+                target == BOOLEAN && (source == INT || source == DOUBLE);
+    }
+
+    /**
+     * @param types - the types of the parameters of a method
+     * @return - arguments that don't fit the parameters, by their number or by their type
+     */
+    private String wrongArguments(int[] types) {
+        StringBuilder arguments = new StringBuilder();
+        for (int type : types) {
+            arguments.append(arguments.length() > 0 ? ", " : "").append(literal(type));
+        }
+        if (types.length > 0 && random.nextBoolean()) { // a string never fits the first parameter
+            int first = arguments.indexOf(",");
+            return types[0] == STRING ? "'c'" + (first < 0 ? "" : arguments.substring(first)) :
+                    "\"text\"" + (first < 0 ? "" : arguments.substring(first));
+        }
+        return arguments + (types.length > 0 ? ", " : "") + literal(INT);
+    }
+
+    /**
+     * @param method - the index of a method
+     * @return - the row of the closing bracket of the method
+     */
+    private int methodEnd(int method) {
+        int next = method + 1 < methodRows.size() ? methodRows.get(method + 1) : lines.size();
+        int row = next - 1;
+        while (!lines.get(row).equals("}")) {
+            row--;
+        }
+        return row;
+    }
+
+    /**
+     * @return - a name which wasn't used in the file, some of them start with an underscore
+     */
+    private String newName() {
+        names++;
+        return (names % 7 == 0 ? "_v" : "v") + names;
+    }
+
+    /**
+     * writes a corpus to a directory
+     *
+     * @param args - the directory, the number of legal and of illegal files, and the seed. then any of
+     *             methods, globals, depth, locals, statements, calls and operands as name=value
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        CorpusGenerator generator = new CorpusGenerator(args.length > 2 ? Long.parseLong(args[2]) : 0);
+        for (int i = 3; i < args.length; i++) {
+            String[] setting = args[i].split("=");
+            switch (setting[0]) {
+                case "methods":
+                    generator.setMethods(Integer.parseInt(setting[1]));
+                    break;
+                case "globals":
+                    generator.setGlobals(Integer.parseInt(setting[1]));
+                    break;
+                case "depth":
+                    generator.setDepth(Integer.parseInt(setting[1]));
+                    break;
+                case "locals":
+                    generator.setLocals(Integer.parseInt(setting[1]));
+                    break;
+                case "statements":
+                    generator.setStatements(Integer.parseInt(setting[1]));
+                    break;
+                case "calls":
+                    generator.setCallDensity(Double.parseDouble(setting[1]));
+                    break;
+                case "operands":
+                    generator.setConditionOperands(Integer.parseInt(setting[1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown setting " + setting[0]);
+            }
+        }
+        generator.write(Paths.get(args[0]), Integer.parseInt(args[1]));
+    }
+}
@@ -0,0 +1,470 @@
+package oop.ex6.bench;
+
+import oop.ex6.main.BatchRunner;
+import oop.ex6.main.CheckResult;
+import oop.ex6.main.GeneralException;
+import oop.ex6.main.Parser;
+import oop.ex6.main.ReferenceSolution;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * checks random s-java files with both the reference solution and the parser, in this jvm and on many
+ * threads, and keeps the files whose codes differ. a file is either generated by a CorpusGenerator, legal
+ * or with an error of a known kind, or one of the tests with a few random mutations - lines removed,
+ * repeated, swapped or taken from another test, and characters or words replaced. each finding is reduced
+ * by removing its lines while the codes still differ, and findings are kept once for each shape of the
+ * reduced file, where names and literals are replaced by their kinds. run it with a directory for the
+ * findings and then any of seconds, seed, threads, jar and corpus as name=value
+ */
+public class DifferentialFuzzer {
+    /**
+     * the code of our result when the parser threw something other than its own exceptions
+     */
+    private static int CRASH = -2;
+    /**
+     * the words put in place of a word by a mutation
+     */
+    private static String[] WORDS = {"int", "double", "boolean", "char", "String", "final", "void", "if",
+            "while", "return", "true", "false", "x", "_", "__", "a1", "1a", "5", "-3.5", "\"s\"", "'c'"};
+    /**
+     * the keywords of s-java, which are kept in the shape of a file
+     */
+    private static String[] KEYWORDS = {"int", "double", "boolean", "char", "String", "final", "void", "if",
+            "while", "return", "true", "false"};
+    /**
+     * the characters put in a line by a mutation
+     */
+    private static String CHARACTERS = " ;,(){}=\"'-.&|_a1\t";
+    /**
+     * the number of kinds of mutations
+     */
+    private static int MUTATIONS = 8;
+    /**
+     * the most mutations of a single file
+     */
+    private static int MAX_MUTATIONS = 4;
+    /**
+     * the chance of a file to be generated rather than mutated from a test
+     */
+    private static double GENERATED_CHANCE = 0.3;
+    /**
+     * the chance of a generated file to have an error
+     */
+    private static double ILLEGAL_CHANCE = 0.5;
+    /**
+     * the most methods of a generated file
+     */
+    private static int MAX_METHODS = 3;
+    /**
+     * the most global variables of a generated file
+     */
+    private static int MAX_GLOBALS = 3;
+    /**
+     * the deepest nesting of blocks in a generated file
+     */
+    private static int MAX_DEPTH = 2;
+    /**
+     * the most statements of a scope of a generated file
+     */
+    private static int MAX_STATEMENTS = 4;
+    /**
+     * the number of rounds of reducing a finding
+     */
+    private static int REDUCE_ROUNDS = 3;
+    /**
+     * milliseconds in a second
+     */
+    private static long MILLIS_PER_SECOND = 1000;
+    /**
+     * the suffix of the files of the findings
+     */
+    private static String SJAVA_SUFFIX = ".sjava";
+
+    /**
+     * the reference solution
+     */
+    private ReferenceSolution reference;
+    /**
+     * the lines of each test to mutate
+     */
+    private List<List<String>> corpus;
+    /**
+     * the directory the findings are written to
+     */
+    private Path findings;
+    /**
+     * the shapes of the findings so far
+     */
+    private ConcurrentHashMap<String, Boolean> shapes = new ConcurrentHashMap<>();
+    /**
+     * the number of files checked
+     */
+    private LongAdder cases = new LongAdder();
+    /**
+     * the number of files whose codes differed, including those of a known shape
+     */
+    private LongAdder mismatches = new LongAdder();
+
+    /**
+     * @param reference - the reference solution
+     * @param corpus    - the lines of each test to mutate
+     * @param findings  - the directory the findings are written to, created if it doesn't exist
+     * @throws IOException
+     */
+    public DifferentialFuzzer(ReferenceSolution reference, List<List<String>> corpus, Path findings)
+            throws IOException {
+        this.reference = reference;
+        this.corpus = corpus;
+        this.findings = Files.createDirectories(findings);
+    }
+
+    /**
+     * checks random files on the given number of threads until the time is over
+     *
+     * @param seconds - the time to run
+     * @param seed    - the seed of the files, each thread adds its index to it
+     * @param threads - the number of threads
+     * @throws InterruptedException
+     */
+    public void run(long seconds, long seed, int threads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + seconds * MILLIS_PER_SECOND;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long threadSeed = seed + i;
+            Thread worker = new Thread(() -> fuzz(threadSeed, deadline));
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * checks random files on the current thread until the deadline
+     *
+     * @param seed     - the seed of the files
+     * @param deadline - the time to stop, in milliseconds
+     */
+    private void fuzz(long seed, long deadline) {
+        Random random = new Random(seed);
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        Path input;
+        try {
+            input = Files.createTempFile("fuzz", SJAVA_SUFFIX);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                List<String> lines;
+                if (random.nextDouble() < GENERATED_CHANCE || corpus.isEmpty()) {
+                    lines = generate(generator, random);
+                } else {
+                    lines = mutate(corpus.get(random.nextInt(corpus.size())), random);
+                }
+                cases.increment();
+                int[] codes = check(lines, input);
+                if (codes[0] != codes[1]) {
+                    mismatches.increment();
+                    record(reduce(lines, input), lines, codes);
+                }
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(input);
+            } catch (IOException e) { // a temporary file
+            }
+        }
+    }
+
+    /**
+     * @param generator - the generator of the current thread
+     * @param random    - the choices of the current thread
+     * @return - the lines of a small generated file, legal or with an error of a random kind
+     */
+    private static List<String> generate(CorpusGenerator generator, Random random) {
+        generator.setMethods(1 + random.nextInt(MAX_METHODS));
+        generator.setGlobals(random.nextInt(MAX_GLOBALS + 1));
+        generator.setDepth(random.nextInt(MAX_DEPTH + 1));
+        generator.setStatements(1 + random.nextInt(MAX_STATEMENTS));
+        generator.setLocals(random.nextInt(MAX_STATEMENTS));
+        if (random.nextDouble() < ILLEGAL_CHANCE) {
+            CorpusGenerator.Error[] errors = CorpusGenerator.Error.values();
+            return generator.generateIllegal(errors[random.nextInt(errors.length)]);
+        }
+        return generator.generate();
+    }
+
+    /**
+     * @param test   - the lines of a test
+     * @param random - the choices of the current thread
+     * @return - the lines of the test with one or more random mutations
+     */
+    private List<String> mutate(List<String> test, Random random) {
+        List<String> lines = new ArrayList<>(test);
+        int count = 1 + random.nextInt(MAX_MUTATIONS);
+        for (int i = 0; i < count && !lines.isEmpty(); i++) {
+            int row = random.nextInt(lines.size());
+            String line = lines.get(row);
+            int column = random.nextInt(line.length() + 1);
+            switch (random.nextInt(MUTATIONS)) {
+                case 0:
+                    lines.remove(row);
+                    break;
+                case 1:
+                    lines.add(row, line);
+                    break;
+                case 2:
+                    if (row + 1 < lines.size()) {
+                        lines.set(row, lines.get(row + 1));
+                        lines.set(row + 1, line);
+                    }
+                    break;
+                case 3:
+                    List<String> other = corpus.get(random.nextInt(corpus.size()));
+                    if (!other.isEmpty()) {
+                        lines.add(row, other.get(random.nextInt(other.size())));
+                    }
+                    break;
+                case 4:
+                    if (column < line.length()) {
+                        lines.set(row, line.substring(0, column) + line.substring(column + 1));
+                    }
+                    break;
+                case 5:
+                    lines.set(row, line.substring(0, column) + CHARACTERS.charAt(random.nextInt(
+                            CHARACTERS.length())) + line.substring(column));
+                    break;
+                case 6:
+                    lines.set(row, replaceWord(line, column, WORDS[random.nextInt(WORDS.length)]));
+                    break;
+                default: // a line of a new scope
+                    lines.add(row, random.nextBoolean() ? "}" : line.trim().isEmpty() ? "{" : line + " {");
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @param line   - a line
+     * @param column - a position in the line
+     * @param word   - a word
+     * @return - the line with the word at the position replaced by the given word, or the word added at
+     * the position if there is no word there
+     */
+    private static String replaceWord(String line, int column, String word) {
+        int start = column;
+        while (start > 0 && isWordChar(line.charAt(start - 1))) {
+            start--;
+        }
+        int end = column;
+        while (end < line.length() && isWordChar(line.charAt(end))) {
+            end++;
+        }
+        return line.substring(0, start) + word + line.substring(end);
+    }
+
+    /**
+     * checks a file with both solutions
+     *
+     * @param lines - the lines of the file
+     * @param input - the temporary file of the current thread, which the reference reads
+     * @return - the code of the reference and then ours
+     */
+    private int[] check(List<String> lines, Path input) {
+        try {
+            Files.write(input, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CheckResult expected = reference.check(input);
+        int actual;
+        try {
+            new Parser().parse(lines);
+            actual = CheckResult.LEGAL;
+        } catch (GeneralException e) {
+            actual = CheckResult.ILLEGAL;
+        } catch (IOException e) {
+            actual = CheckResult.IO_ERROR;
+        } catch (RuntimeException | StackOverflowError e) {
+            actual = CRASH;
+        }
+        return new int[]{expected.getCode(), actual};
+    }
+
+    /**
+     * removes the lines of a finding, one at a time, while the codes still differ
+     *
+     * @param lines - the lines of a file whose codes differ
+     * @param input - the temporary file of the current thread
+     * @return - the lines left
+     */
+    private List<String> reduce(List<String> lines, Path input) {
+        List<String> reduced = new ArrayList<>(lines);
+        for (int round = 0; round < REDUCE_ROUNDS; round++) {
+            boolean isReduced = false;
+            for (int row = reduced.size() - 1; row >= 0; row--) {
+                List<String> candidate = new ArrayList<>(reduced);
+                candidate.remove(row);
+                int[] codes = check(candidate, input);
+                if (codes[0] != codes[1]) {
+                    reduced = candidate;
+                    isReduced = true;
+                }
+            }
+            if (!isReduced) {
+                break;
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * writes a finding, unless a finding of the same shape was written
+     *
+     * @param reduced - the reduced lines of the finding
+     * @param lines   - the lines of the file that was checked
+     * @param codes   - the code of the reference and then ours
+     */
+    private void record(List<String> reduced, List<String> lines, int[] codes) {
+        String shape = codes[0] + " " + codes[1] + "\n" + shapeOf(reduced);
+        if (shapes.putIfAbsent(shape, Boolean.TRUE) != null) {
+            return;
+        }
+        String name = String.format("finding_%08x_reference%d_ours%d", shape.hashCode(), codes[0], codes[1]);
+        try {
+            Files.write(findings.resolve(name + SJAVA_SUFFIX), reduced, StandardCharsets.UTF_8);
+            Files.write(findings.resolve(name + ".original" + SJAVA_SUFFIX), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param lines - the lines of a file
+     * @return - the shape of the file - each name is replaced by a, each number by 0, each string by ""
+     * and each char by '', while the keywords and the other characters are kept, and white spaces are
+     * shrunk to a single space
+     */
+    private static String shapeOf(List<String> lines) {
+        StringBuilder shape = new StringBuilder();
+        for (String line : lines) {
+            for (int i = 0; i < line.length(); ) {
+                char c = line.charAt(i);
+                int end = i + 1;
+                if (c == '"' || c == '\'') {
+                    while (end < line.length() && line.charAt(end) != c) {
+                        end++;
+                    }
+                    shape.append(c).append(c);
+                    end = Math.min(end + 1, line.length());
+                } else if (isWordChar(c)) {
+                    while (end < line.length() && (isWordChar(line.charAt(end)) || line.charAt(end) == '.')) {
+                        end++;
+                    }
+                    String word = line.substring(i, end);
+                    shape.append(isKeyword(word) ? word : Character.isDigit(c) ? "0" : "a");
+                } else if (Character.isWhitespace(c)) {
+                    while (end < line.length() && Character.isWhitespace(line.charAt(end))) {
+                        end++;
+                    }
+                    shape.append(' ');
+                } else {
+                    shape.append(c);
+                }
+                i = end;
+            }
+            shape.append('\n');
+        }
+        return shape.toString();
+    }
+
+    /**
+     * @param word - a word of a line
+     * @return - true if it is a keyword of s-java
+     */
+    private static boolean isKeyword(String word) {
+        for (String keyword : KEYWORDS) {
+            if (keyword.equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if it is a letter, a digit or an underscore
+     */
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * fuzzes the parser against the reference and prints the number of files checked, the rate and the
+     * number of findings
+     *
+     * @param args - the directory of the findings, then any of seconds, seed, threads, jar and corpus as
+     *             name=value. the defaults are a minute, seed 0, a thread for each processor, and the jar
+     *             and tests of the tester, from the root of the project
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long seconds = 60;
+        long seed = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String jar = "src/Tester_files/school_solution.jar";
+        String tests = "src/Tester_files/tests";
+        for (int i = 1; i < args.length; i++) {
+            String[] setting = args[i].split("=");
+            switch (setting[0]) {
+                case "seconds":
+                    seconds = Long.parseLong(setting[1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(setting[1]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(setting[1]);
+                    break;
+                case "jar":
+                    jar = setting[1];
+                    break;
+                case "corpus":
+                    tests = setting[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown setting " + setting[0]);
+            }
+        }
+        List<List<String>> corpus = new ArrayList<>();
+        for (Path test : BatchRunner.collectFiles(new String[]{tests})) {
+            try {
+                corpus.add(Files.readAllLines(test, StandardCharsets.UTF_8));
+            } catch (IOException e) { // a test which isn't in UTF-8 is not mutated
+            }
+        }
+        try (ReferenceSolution reference = new ReferenceSolution(Paths.get(jar))) {
+            DifferentialFuzzer fuzzer = new DifferentialFuzzer(reference, corpus, Paths.get(args[0]));
+            long start = System.nanoTime();
+            fuzzer.run(seconds, seed, threads);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d files in %.1f s, %.0f per second, %d mismatches, %d findings%n",
+                    fuzzer.cases.sum(), elapsed, fuzzer.cases.sum() / elapsed, fuzzer.mismatches.sum(),
+                    fuzzer.shapes.size());
+        }
+    }
+}
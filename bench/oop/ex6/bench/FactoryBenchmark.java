@@ -0,0 +1,109 @@
+package oop.ex6.bench;
+
+import oop.ex6.ifAndWhileBlocks.Block;
+import oop.ex6.ifAndWhileBlocks.BlockFactory;
+import oop.ex6.methods.Method;
+import oop.ex6.methods.MethodFactory;
+import oop.ex6.methods.MethodRegistry;
+import oop.ex6.variables.SymbolTable;
+import oop.ex6.variables.Variable;
+import oop.ex6.variables.VariableFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the factories on single lines, as the parser calls them. each operation is a single line
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FactoryBenchmark {
+    /**
+     * the global variables the lines use
+     */
+    private static String[] GLOBALS = {"int a = 5;", "boolean b = true;", "final double d = 2.5;"};
+    /**
+     * a declaration line
+     */
+    private static String DECLARATION = "int x = 5, y, z = a;";
+    /**
+     * an assignment line
+     */
+    private static String ASSIGNMENT = "a = 7;";
+    /**
+     * a method declaration line
+     */
+    private static String METHOD_LINE = "void method(int a, final String s, boolean flag) {";
+    /**
+     * an if line
+     */
+    private static String IF_LINE = "if (b || a && d || true) {";
+    /**
+     * the variables visible to the lines
+     */
+    private SymbolTable scope;
+    /**
+     * the methods declared before the method line
+     */
+    private MethodRegistry methods;
+
+    /**
+     * declares the global variables
+     *
+     * @throws Exception
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        scope = new SymbolTable();
+        for (String global : GLOBALS) {
+            VariableFactory.parseLine(global, scope, false);
+        }
+        methods = new MethodRegistry();
+    }
+
+    /**
+     * @return - the variables of the declaration line, declared in a scope that is closed after it
+     * @throws Exception
+     */
+    @Benchmark
+    public ArrayList<Variable> parseDeclaration() throws Exception {
+        scope.push();
+        try {
+            return VariableFactory.parseLine(DECLARATION, scope, false);
+        } finally {
+            scope.pop();
+        }
+    }
+
+    /**
+     * @return - the variables of the assignment line
+     * @throws Exception
+     */
+    @Benchmark
+    public ArrayList<Variable> parseAssignment() throws Exception {
+        return VariableFactory.parseLine(ASSIGNMENT, scope, false);
+    }
+
+    /**
+     * @return - the method of the method line
+     * @throws Exception
+     */
+    @Benchmark
+    public Method createMethod() throws Exception {
+        return MethodFactory.createMethod(METHOD_LINE, 1, methods);
+    }
+
+    /**
+     * @return - the block of the if line
+     * @throws Exception
+     */
+    @Benchmark
+    public Block createBlock() throws Exception {
+        return BlockFactory.createBlock(IF_LINE, 1, scope);
+    }
+}
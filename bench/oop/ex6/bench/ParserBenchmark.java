@@ -0,0 +1,103 @@
+package oop.ex6.bench;
+
+import oop.ex6.main.Parser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures full checks of small, medium and huge files, from the lines in memory and from a file on the
+ * disk. the lines counter reports the throughput in lines per second
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParserBenchmark {
+    /**
+     * the size of the checked file
+     */
+    @Param({"small", "medium", "huge"})
+    public String size;
+    /**
+     * the lines of the checked file
+     */
+    private List<String> fileLines;
+    /**
+     * the checked file, written to the disk
+     */
+    private Path file;
+
+    /**
+     * counts the lines checked by each benchmark thread
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LineCounter {
+        /**
+         * the number of lines checked
+         */
+        public long lines;
+    }
+
+    /**
+     * builds the checked file
+     *
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fileLines = BenchmarkInputs.file(BenchmarkInputs.methods(size));
+        file = Files.createTempFile("bench", ".sjava");
+        Files.write(file, fileLines);
+    }
+
+    /**
+     * removes the checked file from the disk
+     *
+     * @throws IOException
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @param counter - the counter of the checked lines
+     * @return - the result of checking the lines in memory
+     * @throws Exception
+     */
+    @Benchmark
+    public boolean parseLines(LineCounter counter) throws Exception {
+        counter.lines += fileLines.size();
+        return new Parser().parse(fileLines);
+    }
+
+    /**
+     * @param counter - the counter of the checked lines
+     * @return - the result of reading and checking the file
+     * @throws Exception
+     */
+    @Benchmark
+    public boolean parseFile(LineCounter counter) throws Exception {
+        counter.lines += fileLines.size();
+        return new Parser().parse(file.toString());
+    }
+
+    /**
+     * @param counter - the counter of the checked lines
+     * @return - the result of checking the file without keeping its lines in memory
+     * @throws Exception
+     */
+    @Benchmark
+    public boolean parseStreaming(LineCounter counter) throws Exception {
+        counter.lines += fileLines.size();
+        return new Parser().parseStreaming(file.toString());
+    }
+}
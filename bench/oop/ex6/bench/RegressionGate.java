@@ -0,0 +1,497 @@
+package oop.ex6.bench;
+
+import oop.ex6.main.BatchRunner;
+import oop.ex6.main.GeneralException;
+import oop.ex6.main.Parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * fails when a change makes the checker slower or makes it allocate more than the baseline kept in the
+ * repo. each workload is measured in a few forked jvms, each warmed up before it is measured. the speed
+ * of a workload is relative to a calibration workload, which uses only the jdk and runs right before
+ * each check of the workload in the same jvm, so the figures don't depend on the speed of the machine or
+ * on how busy it is while the gate runs. the median of the iterations of all the forks is compared with the
+ * baseline, with fixed tolerances. allocation hardly depends on the machine and has a tolerance of its
+ * own. run it from the root of the project with any of tolerance, alloc-tolerance, forks, warmup,
+ * iterations, millis and baseline as name=value, and with update to write the baseline instead
+ */
+public class RegressionGate {
+    /**
+     * the first argument of a forked jvm, followed by the workload, the warmup and measured iterations
+     * and the milliseconds of an iteration
+     */
+    private static String FORK_FLAG = "--fork";
+    /**
+     * the argument which writes the measured figures as the new baseline
+     */
+    private static String UPDATE_FLAG = "update";
+    /**
+     * the names of the workloads, in the order they are measured
+     */
+    private static String[] WORKLOADS = {"corpus", "generated", "deep", "huge"};
+    /**
+     * the directory of the bundled tests, checked by the corpus workload
+     */
+    private static String CORPUS = "src/Tester_files/tests";
+    /**
+     * the number of methods of the generated and deep workloads
+     */
+    private static int GENERATED_METHODS = 1000;
+    /**
+     * the deepest nesting of blocks in the deep workload
+     */
+    private static int DEEP_DEPTH = 6;
+    /**
+     * the number of methods of the huge workload
+     */
+    private static int HUGE_METHODS = 20000;
+    /**
+     * the number of lines of the calibration workload
+     */
+    private static int CALIBRATION_LINES = 4096;
+    /**
+     * the pattern the calibration workload matches its lines with, a declaration like those of s-java
+     */
+    private static Pattern CALIBRATION_PATTERN =
+            Pattern.compile("\\s*(\\w+)\\s+(\\w+)\\s*=\\s*(\\w+)\\s*;\\s*");
+    /**
+     * the most iterations of the warmup, as a multiple of the least
+     */
+    private static int MAX_WARMUP = 4;
+    /**
+     * the options of the forked jvms, which keep the heap and the collector the same on every machine
+     */
+    private static String[] FORK_OPTIONS = {"-Xms512m", "-Xmx512m", "-XX:+UseParallelGC"};
+    /**
+     * starts a line of the baseline which is a comment
+     */
+    private static String COMMENT = "#";
+    /**
+     * nanoseconds in a second
+     */
+    private static double NANOS_PER_SECOND = 1e9;
+    /**
+     * nanoseconds in a millisecond
+     */
+    private static long NANOS_PER_MILLI = 1000000;
+    /**
+     * the code the gate exits with when a figure regressed
+     */
+    private static int REGRESSION_EXIT = 1;
+    /**
+     * keeps the results of the checks, so they are not optimized away
+     */
+    private static volatile int sink;
+
+    /**
+     * the relative drop in speed allowed
+     */
+    private double tolerance = 0.15;
+    /**
+     * the relative rise in the bytes allocated per line allowed
+     */
+    private double allocTolerance = 0.05;
+    /**
+     * the number of jvms each workload is measured in
+     */
+    private int forks = 5;
+    /**
+     * the number of iterations of each fork before it is measured
+     */
+    private int warmup = 5;
+    /**
+     * the number of measured iterations of each fork
+     */
+    private int iterations = 5;
+    /**
+     * the length of an iteration, in milliseconds
+     */
+    private long millis = 300;
+    /**
+     * the file of the baseline
+     */
+    private Path baseline = Paths.get("bench/baseline.txt");
+
+    /**
+     * the figures of a workload
+     */
+    private static class Figures {
+        /**
+         * the lines checked per second, divided by the lines of the calibration workload per second
+         */
+        private double speed;
+        /**
+         * the bytes allocated per line checked
+         */
+        private double bytesPerLine;
+
+        /**
+         * @param speed        - the lines checked per line of the calibration workload
+         * @param bytesPerLine - the bytes allocated per line checked
+         */
+        private Figures(double speed, double bytesPerLine) {
+            this.speed = speed;
+            this.bytesPerLine = bytesPerLine;
+        }
+    }
+
+    /**
+     * @param workload - the name of a workload
+     * @return - the files of the workload
+     * @throws IOException
+     */
+    private static List<List<String>> filesOf(String workload) throws IOException {
+        List<List<String>> files = new ArrayList<>();
+        switch (workload) {
+            case "corpus":
+                for (Path test : BatchRunner.collectFiles(new String[]{CORPUS})) {
+                    try {
+                        files.add(Files.readAllLines(test, StandardCharsets.UTF_8));
+                    } catch (IOException e) { // a test which isn't in UTF-8 is not read by the checker either
+                    }
+                }
+                break;
+            case "generated":
+                CorpusGenerator generator = new CorpusGenerator(0);
+                generator.setMethods(GENERATED_METHODS);
+                files.add(generator.generate());
+                break;
+            case "deep":
+                CorpusGenerator deep = new CorpusGenerator(0);
+                deep.setMethods(GENERATED_METHODS);
+                deep.setDepth(DEEP_DEPTH);
+                files.add(deep.generate());
+                break;
+            case "huge":
+                files.add(BenchmarkInputs.file(HUGE_METHODS));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown workload " + workload);
+        }
+        return files;
+    }
+
+    /**
+     * checks all the files of a workload once
+     *
+     * @param files - the files of the workload
+     * @return - the number of lines checked
+     */
+    private static long checkAll(List<List<String>> files) {
+        long lines = 0;
+        for (List<String> fileLines : files) {
+            try {
+                sink += new Parser().parse(fileLines) ? 1 : 0;
+            } catch (GeneralException | IOException e) {
+                sink += e.getMessage() == null ? 0 : 1;
+            }
+            lines += fileLines.size();
+        }
+        return lines;
+    }
+
+    /**
+     * @return - the lines of the calibration workload, the same in every run
+     */
+    private static List<String> calibrationLines() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < CALIBRATION_LINES; i++) {
+            lines.add((i % 3 == 0 ? "  int" : "double") + " value" + i % 97 + " = " + (i * 31 % 1000) + ";");
+        }
+        return lines;
+    }
+
+    /**
+     * runs the calibration workload once - matches each line, counts its names in a hash map and builds
+     * a string of its parts, which is the kind of work the checker does, but all of it in the jdk
+     *
+     * @param lines - the lines of the calibration workload
+     * @return - the number of lines
+     */
+    private static long calibrate(List<String> lines) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String line : lines) {
+            Matcher matcher = CALIBRATION_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                counts.merge(matcher.group(2), 1, Integer::sum);
+                sink += new StringBuilder(matcher.group(1)).append(matcher.group(3)).toString().length();
+            }
+        }
+        sink += counts.size();
+        return lines.size();
+    }
+
+    /**
+     * measures a workload in this jvm and prints the speed relative to the calibration workload and the
+     * bytes per line of each measured iteration. the warmup goes on past the given number of iterations,
+     * up to MAX_WARMUP times that number, until an iteration in which nothing was compiled. the time of an
+     * iteration is the cpu time of this thread, which leaves out the compiler threads, the collector and
+     * the other processes of the machine; the cost of collecting shows in the bytes per line instead
+     *
+     * @param workload   - the name of the workload
+     * @param warmup     - the least number of iterations before it is measured
+     * @param iterations - the number of measured iterations
+     * @param millis     - the length of an iteration
+     * @throws IOException
+     */
+    private static void measure(String workload, int warmup, int iterations, long millis) throws IOException {
+        List<List<String>> files = filesOf(workload);
+        List<String> calibration = calibrationLines();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        long thread = Thread.currentThread().getId();
+        long compiled = compiler.getTotalCompilationTime();
+        for (int i = 0; i < warmup * MAX_WARMUP; i++) {
+            iterate(files, calibration, threads, thread, millis);
+            long now = compiler.getTotalCompilationTime();
+            if (i + 1 >= warmup && now == compiled) {
+                break;
+            }
+            compiled = now;
+        }
+        for (int i = 0; i < iterations; i++) {
+            double[] figures = iterate(files, calibration, threads, thread, millis);
+            System.out.println(figures[0] + " " + figures[1]);
+        }
+    }
+
+    /**
+     * checks the files of a workload again and again for an iteration, taking turns with the calibration
+     * workload so both take the same cpu time, and anything which slows the machine down slows both alike
+     *
+     * @param files       - the files of the workload
+     * @param calibration - the lines of the calibration workload
+     * @param threads     - the bean of the threads of this jvm
+     * @param thread      - the id of this thread
+     * @param millis      - the cpu time of the workload in the iteration
+     * @return - the lines checked per line of the calibration workload in the same cpu time, and the bytes
+     * allocated per line checked
+     */
+    private static double[] iterate(List<List<String>> files, List<String> calibration,
+                                    com.sun.management.ThreadMXBean threads, long thread, long millis) {
+        long lines = 0;
+        long calibrationLines = 0;
+        long allocated = 0;
+        long elapsed = 0;
+        long calibrationElapsed = 0;
+        while (elapsed < millis * NANOS_PER_MILLI || calibrationElapsed < elapsed) {
+            long start = threads.getCurrentThreadCpuTime();
+            if (calibrationElapsed < elapsed) {
+                calibrationLines += calibrate(calibration);
+                calibrationElapsed += threads.getCurrentThreadCpuTime() - start;
+            } else {
+                long bytes = threads.getThreadAllocatedBytes(thread);
+                lines += checkAll(files);
+                allocated += threads.getThreadAllocatedBytes(thread) - bytes;
+                elapsed += threads.getCurrentThreadCpuTime() - start;
+            }
+        }
+        return new double[]{(lines / (double) elapsed) / (calibrationLines / (double) calibrationElapsed),
+                (double) allocated / lines};
+    }
+
+    /**
+     * measures a workload in forked jvms
+     *
+     * @param workload - the name of the workload
+     * @return - the figures of the workload
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private Figures fork(String workload) throws IOException, InterruptedException {
+        List<Double> speeds = new ArrayList<>();
+        List<Double> allocations = new ArrayList<>();
+        for (int i = 0; i < forks; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(Arrays.asList(FORK_OPTIONS));
+            command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"),
+                    RegressionGate.class.getName(), FORK_FLAG, workload, Integer.toString(warmup),
+                    Integer.toString(iterations), Long.toString(millis)));
+            Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    String[] figures = line.split(" ");
+                    speeds.add(Double.parseDouble(figures[0]));
+                    allocations.add(Double.parseDouble(figures[1]));
+                }
+            }
+            if (process.waitFor() != 0) {
+                throw new IOException("the fork of " + workload + " failed");
+            }
+        }
+        return new Figures(median(speeds), median(allocations));
+    }
+
+    /**
+     * @param values - some values
+     * @return - their median
+     */
+    private static double median(List<Double> values) {
+        double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * @return - the figures of each workload in the baseline, empty if there is no baseline
+     * @throws IOException
+     */
+    private Map<String, Figures> readBaseline() throws IOException {
+        Map<String, Figures> figures = new LinkedHashMap<>();
+        if (!Files.isRegularFile(baseline)) {
+            return figures;
+        }
+        for (String line : Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+            String[] parts = line.trim().split("\\s+");
+            if (line.startsWith(COMMENT) || parts.length < 3) {
+                continue;
+            }
+            figures.put(parts[0], new Figures(Double.parseDouble(parts[1]), Double.parseDouble(parts[2])));
+        }
+        return figures;
+    }
+
+    /**
+     * writes the measured figures as the baseline
+     *
+     * @param measured - the figures of each workload
+     * @throws IOException
+     */
+    private void writeBaseline(Map<String, Figures> measured) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append(COMMENT).append(" the baseline of RegressionGate, written by running it with update on ")
+                .append(System.getProperty("os.name")).append(", java ")
+                .append(System.getProperty("java.version")).append(", ")
+                .append(Runtime.getRuntime().availableProcessors()).append(" processors\n");
+        text.append(COMMENT).append(" workload speed bytesPerLine, where speed is the lines checked per line")
+                .append(" of the calibration workload\n");
+        for (Map.Entry<String, Figures> entry : measured.entrySet()) {
+            text.append(String.format(Locale.ROOT, "%s %.4f %.1f%n", entry.getKey(), entry.getValue().speed,
+                    entry.getValue().bytesPerLine));
+        }
+        Files.write(baseline, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * compares the measured figures with the baseline and prints a line for each figure
+     *
+     * @param measured - the figures of each workload
+     * @param expected - the figures of each workload in the baseline
+     * @return - true if no figure regressed beyond its tolerance, and every workload has a baseline
+     */
+    private boolean compare(Map<String, Figures> measured, Map<String, Figures> expected) {
+        boolean isPassed = true;
+        System.out.printf("%-10s %-14s %12s %12s %8s %8s  %s%n", "workload", "figure", "baseline", "current",
+                "change", "allowed", "verdict");
+        for (Map.Entry<String, Figures> entry : measured.entrySet()) {
+            Figures current = entry.getValue();
+            Figures base = expected.get(entry.getKey());
+            if (base == null) {
+                System.out.printf(Locale.ROOT, "%-10s %-14s %12s %12.4f %8s %8s  %s%n", entry.getKey(),
+                        "speed", "-", current.speed, "-", "-", "NO BASELINE");
+                isPassed = false;
+                continue;
+            }
+            double speedChange = current.speed / base.speed - 1;
+            boolean isSlower = -speedChange > tolerance;
+            double allocChange = current.bytesPerLine / base.bytesPerLine - 1;
+            boolean isHeavier = allocChange > allocTolerance;
+            System.out.printf(Locale.ROOT, "%-10s %-14s %12.4f %12.4f %+7.1f%% %7.1f%%  %s%n", entry.getKey(),
+                    "speed", base.speed, current.speed, speedChange * 100, -tolerance * 100,
+                    isSlower ? "REGRESSED" : "ok");
+            System.out.printf(Locale.ROOT, "%-10s %-14s %12.1f %12.1f %+7.1f%% %+7.1f%%  %s%n", "",
+                    "bytes/line", base.bytesPerLine, current.bytesPerLine, allocChange * 100,
+                    allocTolerance * 100, isHeavier ? "REGRESSED" : "ok");
+            isPassed &= !isSlower && !isHeavier;
+        }
+        return isPassed;
+    }
+
+    /**
+     * @param args - the settings as name=value, and update to write the baseline instead of comparing
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 5 && args[0].equals(FORK_FLAG)) {
+            measure(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Long.parseLong(args[4]));
+            return;
+        }
+        RegressionGate gate = new RegressionGate();
+        boolean isUpdate = false;
+        for (String arg : args) {
+            if (arg.equals(UPDATE_FLAG)) {
+                isUpdate = true;
+                continue;
+            }
+            String[] setting = arg.split("=");
+            switch (setting[0]) {
+                case "tolerance":
+                    gate.tolerance = Double.parseDouble(setting[1]);
+                    break;
+                case "alloc-tolerance":
+                    gate.allocTolerance = Double.parseDouble(setting[1]);
+                    break;
+                case "forks":
+                    gate.forks = Integer.parseInt(setting[1]);
+                    break;
+                case "warmup":
+                    gate.warmup = Integer.parseInt(setting[1]);
+                    break;
+                case "iterations":
+                    gate.iterations = Integer.parseInt(setting[1]);
+                    break;
+                case "millis":
+                    gate.millis = Long.parseLong(setting[1]);
+                    break;
+                case "baseline":
+                    gate.baseline = Paths.get(setting[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown setting " + setting[0]);
+            }
+        }
+        Map<String, Figures> expected = gate.readBaseline();
+        if (!isUpdate) { // a missing baseline fails at once, rather than after measuring everything
+            for (String workload : WORKLOADS) {
+                if (!expected.containsKey(workload)) {
+                    System.out.println("no baseline of " + workload + " in " + gate.baseline +
+                            ", run with " + UPDATE_FLAG + " to write one");
+                    System.exit(REGRESSION_EXIT);
+                }
+            }
+        }
+        Map<String, Figures> measured = new LinkedHashMap<>();
+        for (String workload : WORKLOADS) {
+            measured.put(workload, gate.fork(workload));
+        }
+        if (isUpdate) {
+            gate.writeBaseline(measured);
+        } else if (!gate.compare(measured, expected)) {
+            System.exit(REGRESSION_EXIT);
+        }
+    }
+}
@@ -1,4 +1,6 @@
+import oop.ex6.main.ReferenceCache;
 import oop.ex6.main.Sjavac;
+import org.junit.AfterClass;
 import org.junit.Test;
 
 import java.awt.*;
@@ -23,6 +25,10 @@ public class Tester_ex6_oop {
 	private static Path pathToUserTests = Paths.get(pathToTests.toString(), "specificTests");
 	private static Path pathToOutputFile = Paths.get(pathToFiles.toString(), "user_output.txt");
 	private static Path pathToSchoolSolution = Paths.get(pathToFiles.toString(), "school_solution.jar");
+	private static Path pathToSchoolTestsInfo = Paths.get(pathToFiles.toString(), "SchoolTests_info.txt");
+	private static Path pathToSchoolTests = Paths.get(pathToTests.toString(), "SchoolTests");
+	private static Path pathToReferenceResults = Paths.get(pathToFiles.toString(), "reference_results.txt");
+	private static ReferenceCache referenceCache;
 //	private static Path pathToMainClass = Paths.get("oop", "ex5", "main", "Sjava.java");
 //	private static Path pathToCompiledFiles = Paths.get(pathToFiles.toString(), "compiled_files");
 
@@ -204,7 +210,7 @@ public class Tester_ex6_oop {
 	for given test - run school solution and user solution, compare, print and write about it.
 	 */
 	private boolean doOneTest(Path pathToTest) {
-		String[] SchoolSolutionOutput = runTestWithSchoolSolution(pathToTest.toString());
+		String SchoolSolutionCode = runTestWithSchoolSolutionCode(pathToTest.toString());
 		String[] userOutput = runTestWithOnUser(pathToTest.toString());
 
 
@@ -219,8 +225,8 @@ public class Tester_ex6_oop {
 
 		}
 
-		boolean passed = SchoolSolutionOutput[0].equals(userOutput[0]); // compare
-		writeResultToFile(pathToTest, SchoolSolutionOutput[0], userOutput[0], passed);
+		boolean passed = SchoolSolutionCode.equals(userOutput[0]); // compare
+		writeResultToFile(pathToTest, SchoolSolutionCode, userOutput[0], passed);
 
 		if (passed) {
 			System.out.println("passed :)");
@@ -315,6 +321,35 @@ public class Tester_ex6_oop {
 		return excCommand("java", "-jar", pathToSchoolSolution.toString(), pathTOTest);
 	}
 
+	/*
+	return the code of the school solution on the given test - the code kept for a file with the same
+	content, or the code of running the school solution in this jvm, which is then kept. the codes of the
+	school tests are seeded from the tests info file, which has no messages, so only the code is used.
+	 */
+	private String runTestWithSchoolSolutionCode(String pathTOTest) {
+		try {
+			if (referenceCache == null) {
+				referenceCache = new ReferenceCache(pathToSchoolSolution, pathToReferenceResults);
+				referenceCache.seed(pathToSchoolTestsInfo, pathToSchoolTests);
+			}
+			return Integer.toString(referenceCache.check(Paths.get(pathTOTest)).getCode());
+		} catch (IOException e) {
+			// download tester again.
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/*
+	save the results of the school solution for the next run.
+	 */
+	@AfterClass
+	public static void closeReferenceCache() throws IOException {
+		if (referenceCache != null) {
+			referenceCache.close();
+		}
+	}
+
 
 	// ----------------------------------- not interesting -------------------------------------------------
 
@@ -1,9 +1,5 @@
 package oop.ex6.ifAndWhileBlocks;
 
-import oop.ex6.variables.Variable;
-
-import java.util.ArrayList;
-
 /**
  * class representing a general block that has a condition
  */
@@ -17,18 +13,9 @@ public abstract class Block {
      */
     private int startRow;
 
-    private ArrayList<Variable> blockVariables = new ArrayList<>();
-
     public Block(String condition, int startRow) {
         this.condition = condition;
         this.startRow = startRow;
     }
 
-    /**
-     * @return the blocks variables
-     */
-    public ArrayList<Variable> getBlockVariables() {
-        return this.blockVariables;
-    }
-
 }
@@ -6,7 +6,7 @@ package oop.ex6.ifAndWhileBlocks;
 public class BlockException extends Exception{
     private static final long serialVersionUID = 1l;
     public BlockException(String s){
-        super(s);
+        super(s, null, false, false); // without a stack trace
     }
 
 }
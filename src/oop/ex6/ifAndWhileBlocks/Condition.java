@@ -0,0 +1,308 @@
+package oop.ex6.ifAndWhileBlocks;
+
+import oop.ex6.variables.SymbolTable;
+import oop.ex6.variables.Variable;
+import oop.ex6.variables.VariableFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the condition of an if or while block, parsed once for each text. a condition is a list of operands
+ * separated by || and &&, where each operand is true, false, a number or the name of a variable. parsing
+ * needs nothing but the text, so its result is kept by the text and only the variable is looked up in the
+ * scope of each block
+ */
+public class Condition {
+    /**
+     * a message when the condition starts or ends with an operator
+     */
+    private static String CONDITION_START_OR_END = "illegal condition - the brackets start with || or &&";
+    /**
+     * a message when an operand is not a boolean expression
+     */
+    private static String NOT_BOOLEAN_CONDITION = "The condition is not containing a boolean expression";
+    /**
+     * the or operator
+     */
+    private static String OR = "||";
+    /**
+     * the and operator
+     */
+    private static String AND = "&&";
+    /**
+     * the number of characters of an operator
+     */
+    private static int OPERATOR_LENGTH = 2;
+    /**
+     * the most conditions kept at once, the cache is emptied when there are more
+     */
+    private static int MAX_CACHED = 4096;
+    /**
+     * the condition of each text parsed so far
+     */
+    private static ConcurrentHashMap<String, Condition> conditions = new ConcurrentHashMap<>();
+    /**
+     * a condition of literals only, which is always legal
+     */
+    private static Condition LEGAL = new Condition(null, null);
+    /**
+     * the error of the condition, null if it has none before its first variable
+     */
+    private String error;
+    /**
+     * the first variable of the condition, which decides if it is legal. null if there is none
+     */
+    private String variable;
+
+    /**
+     * @param error    - the error of the condition, null if it has none before its first variable
+     * @param variable - the first variable of the condition, null if there is none
+     */
+    private Condition(String error, String variable) {
+        this.error = error;
+        this.variable = variable;
+    }
+
+    /**
+     * @param text - the content of the brackets of an if or while line
+     * @return - the parsed condition of the text
+     */
+    public static Condition of(String text) {
+        Condition condition = conditions.get(text);
+        if (condition == null) {
+            if (conditions.size() >= MAX_CACHED) {
+                conditions.clear();
+            }
+            condition = parse(text);
+            conditions.put(text, condition);
+        }
+        return condition;
+    }
+
+    /**
+     * checks the condition in the given scope. the operands are checked in order up to the first
+     * variable, which decides the result
+     *
+     * @param scopeVariables - table of the visible variables
+     * @return - true if the condition is legal
+     * @throws BlockException
+     */
+    public boolean check(SymbolTable scopeVariables) throws BlockException {
+        if (error != null) {
+            throw new BlockException(error);
+        }
+        if (variable == null) {
+            return true;
+        }
+        Variable var = scopeVariables.lookup(variable);
+        if (var != null && (var.getType() == VariableFactory.Type.INT ||
+                var.getType() == VariableFactory.Type.DOUBLE ||
+                var.getType() == VariableFactory.Type.BOOLEAN) && var.isInitialized()) {
+            return true;
+        }
+        throw new BlockException(NOT_BOOLEAN_CONDITION);
+    }
+
+    /**
+     * parses a condition in a single scan of its text. the text is split at each || and each part at
+     * each &&, from left to right. as in String.split, empty operands at the end of a part are dropped
+     * when the part has an &&. spaces are dropped from the operands, and other white spaces are allowed
+     * only at their ends
+     *
+     * @param text - the content of the brackets of an if or while line
+     * @return - the parsed condition
+     */
+    private static Condition parse(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isSpace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (isOperator(text, start) || isOperator(text, end - OPERATOR_LENGTH)) {
+            return new Condition(CONDITION_START_OR_END, null);
+        }
+        for (int partStart = 0; partStart <= text.length(); ) {
+            int partEnd = text.indexOf(OR, partStart);
+            partEnd = partEnd < 0 ? text.length() : partEnd;
+            boolean hasAnd = text.indexOf(AND, partStart) >= 0 && text.indexOf(AND, partStart) < partEnd;
+            for (int operandStart = partStart; operandStart <= partEnd; ) {
+                int operandEnd = text.indexOf(AND, operandStart);
+                operandEnd = operandEnd < 0 || operandEnd > partEnd ? partEnd : operandEnd;
+                if (hasAnd && operandStart == operandEnd && isAllAnds(text, operandStart, partEnd)) {
+                    break; // the empty operands at the end of the part are dropped
+                }
+                Condition operand = parseOperand(text, operandStart, operandEnd);
+                if (operand != LEGAL) {
+                    return operand;
+                }
+                operandStart = operandEnd + OPERATOR_LENGTH;
+            }
+            partStart = partEnd + OPERATOR_LENGTH;
+        }
+        return LEGAL;
+    }
+
+    /**
+     * parses a single operand
+     *
+     * @param text  - the text of the condition
+     * @param start - the start of the operand
+     * @param end   - the end of the operand
+     * @return - LEGAL for a literal, a condition of the variable for a name, and an error otherwise
+     */
+    private static Condition parseOperand(String text, int start, int end) {
+        while (start < end && isSpace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (isWord(text, start, end, "true") || isWord(text, start, end, "false") ||
+                isNumber(text, start, end)) {
+            return LEGAL;
+        }
+        if (isName(text, start, end)) {
+            return new Condition(null, text.substring(start, end).replace(" ", ""));
+        }
+        return new Condition(NOT_BOOLEAN_CONDITION, null);
+    }
+
+    /**
+     * @param text  - the text of the condition
+     * @param start - the start of the operand
+     * @param end   - the end of the operand
+     * @param word  - a word
+     * @return - true if the operand is the word, without its spaces
+     */
+    private static boolean isWord(String text, int start, int end, String word) {
+        int i = start;
+        for (int j = 0; j < word.length(); j++) {
+            i = skipSpaces(text, i, end);
+            if (i == end || text.charAt(i) != word.charAt(j)) {
+                return false;
+            }
+            i++;
+        }
+        return skipSpaces(text, i, end) == end;
+    }
+
+    /**
+     * @param text  - the text of the condition
+     * @param start - the start of the operand
+     * @param end   - the end of the operand
+     * @return - true if the operand is an int or a double, without its spaces
+     */
+    private static boolean isNumber(String text, int start, int end) {
+        int i = skipSpaces(text, start, end);
+        if (i < end && text.charAt(i) == '-') {
+            i = skipSpaces(text, i + 1, end);
+        }
+        int digits = 0;
+        for (; i < end && isDigit(text.charAt(i)); i = skipSpaces(text, i + 1, end)) {
+            digits++;
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && text.charAt(i) == '.') {
+            digits = 0;
+            for (i = skipSpaces(text, i + 1, end); i < end && isDigit(text.charAt(i));
+                 i = skipSpaces(text, i + 1, end)) {
+                digits++;
+            }
+            return digits > 0 && i == end;
+        }
+        return i == end;
+    }
+
+    /**
+     * @param text  - the text of the condition
+     * @param start - the start of the operand
+     * @param end   - the end of the operand
+     * @return - true if the operand is the name of a variable, without its spaces
+     */
+    private static boolean isName(String text, int start, int end) {
+        int i = skipSpaces(text, start, end);
+        if (i == end) {
+            return false;
+        }
+        char first = text.charAt(i);
+        boolean isLetter = first >= 'a' && first <= 'z' || first >= 'A' && first <= 'Z';
+        if (!isLetter && first != '_') {
+            return false;
+        }
+        int rest = 0;
+        for (i = skipSpaces(text, i + 1, end); i < end && isWordChar(text.charAt(i));
+             i = skipSpaces(text, i + 1, end)) {
+            rest++;
+        }
+        return i == end && (isLetter || rest > 0);
+    }
+
+    /**
+     * @param text  - the text of the condition
+     * @param start - a position in the text
+     * @param end   - the end of the operand
+     * @return - the first position from the given one which isn't a space
+     */
+    private static int skipSpaces(String text, int start, int end) {
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * @param text  - the text of the condition
+     * @param start - a position in the text
+     * @param end   - the end of the part
+     * @return - true if the text from the position to the end of the part is made of && only
+     */
+    private static boolean isAllAnds(String text, int start, int end) {
+        if ((end - start) % OPERATOR_LENGTH != 0) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != '&') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param text  - the text of the condition
+     * @param start - a position in the text
+     * @return - true if an operator starts at the position
+     */
+    private static boolean isOperator(String text, int start) {
+        return start >= 0 && (text.startsWith(OR, start) || text.startsWith(AND, start));
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if it is a white space, as \s of a regular expression
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if it is a digit, as \d of a regular expression
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if it is a word character, as \w of a regular expression
+     */
+    private static boolean isWordChar(char c) {
+        return isDigit(c) || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+}
@@ -0,0 +1,313 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * checks many files in one run on a work-stealing pool, and prints one result line per file. the files
+ * of zip and jar archives are read straight from the archives, and gzip files are decompressed while
+ * they are read, so nothing is extracted to the disk
+ */
+public class BatchRunner {
+    /**
+     * the suffix of the files collected from a directory or an archive
+     */
+    private static String SJAVA_SUFFIX = ".sjava";
+    /**
+     * the suffix of the gzip files collected from a directory or an archive
+     */
+    private static String GZIP_SJAVA_SUFFIX = SJAVA_SUFFIX + Parser.GZIP_SUFFIX;
+    /**
+     * the suffixes of the archives whose files are checked
+     */
+    private static String[] ARCHIVE_SUFFIXES = {".zip", ".jar"};
+    /**
+     * separates the path of an archive from the path of a file inside it
+     */
+    private static String ARCHIVE_SEPARATOR = "!";
+    /**
+     * separates the path of a file from its result
+     */
+    private static String SEPARATOR = " ";
+    /**
+     * separates the path of a file from its error message
+     */
+    private static String MESSAGE_SEPARATOR = ": ";
+    /**
+     * starts the message of archives which have no files to check
+     */
+    private static String NO_FILES = "no sjava files in ";
+    /**
+     * separates the paths in the message of archives which have no files to check
+     */
+    private static String PATHS_SEPARATOR = ", ";
+    /**
+     * starts the message of a file whose check failed with an unexpected exception
+     */
+    private static String CHECK_FAILED = "the check of the file failed: ";
+
+    /**
+     * checks all the given files and directories and prints the results in the order of the arguments,
+     * where the files of a directory are sorted by their path
+     *
+     * @param paths - files and directories to check
+     * @param out   - the stream to print the results to
+     * @param err   - the stream to print the error messages to
+     */
+    public static void run(String[] paths, PrintStream out, PrintStream err) {
+        run(paths, out, err, null);
+    }
+
+    /**
+     * checks all the given files and directories and prints the results in the order of the arguments,
+     * where the files of a directory are sorted by their path
+     *
+     * @param paths - files and directories to check
+     * @param out   - the stream to print the results to
+     * @param err   - the stream to print the error messages to
+     * @param cache - the cache to answer unchanged files from, null to check every file
+     */
+    public static void run(String[] paths, PrintStream out, PrintStream err, ResultCache cache) {
+        run(paths, out, err, cache, null);
+    }
+
+    /**
+     * checks all the given files and directories and prints the results in the order of the arguments,
+     * where the files of a directory are sorted by their path. if the arguments hold archives but no files
+     * at all, a single code of IO_ERROR is printed, as for a file that could not be read, so a run on an
+     * archive always prints a code
+     *
+     * @param paths - files and directories to check
+     * @param out   - the stream to print the results to
+     * @param err   - the stream to print the error messages to
+     * @param cache - the cache to answer unchanged files from, null to check every file
+     * @param stats - the statistics of the run to add each file to, null to keep none
+     */
+    public static void run(String[] paths, PrintStream out, PrintStream err, ResultCache cache,
+                           RunStats stats) {
+        List<FileSystem> archives = new ArrayList<>();
+        try {
+            List<Path> files = collectFiles(paths, archives);
+            if (files.isEmpty() && !archives.isEmpty()) {
+                out.println(CheckResult.IO_ERROR);
+                err.println(NO_FILES + String.join(PATHS_SEPARATOR, paths));
+                return;
+            }
+            CheckResult[] results = checkAll(files, cache, stats);
+            for (int i = 0; i < files.size(); i++) {
+                out.println(nameOf(files.get(i)) + SEPARATOR + results[i].getCode());
+                if (!results[i].isLegal()) {
+                    err.println(nameOf(files.get(i)) + MESSAGE_SEPARATOR + results[i].getMessage());
+                }
+            }
+        } catch (IOException e) {
+            out.println(CheckResult.IO_ERROR);
+            err.println(e.getMessage());
+        } finally {
+            for (FileSystem archive : archives) {
+                try {
+                    archive.close();
+                } catch (IOException e) { // nothing was written to it
+                }
+            }
+        }
+    }
+
+    /**
+     * expands the given arguments into the list of files to check
+     *
+     * @param paths - files and directories
+     * @return - the files, directories replaced by the sjava files they contain
+     * @throws IOException
+     */
+    public static List<Path> collectFiles(String[] paths) throws IOException {
+        return collectFiles(paths, null);
+    }
+
+    /**
+     * expands the given arguments into the list of files to check
+     *
+     * @param paths    - files, directories and archives
+     * @param archives - the list to add the file systems of the opened archives to, which should be
+     *                 closed once the files are checked. null to check archives as single files
+     * @return - the files, directories and archives replaced by the sjava files they contain, sorted
+     * by their path
+     * @throws IOException
+     */
+    public static List<Path> collectFiles(String[] paths, List<FileSystem> archives) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String path : paths) {
+            Path file = Paths.get(path);
+            if (archives != null && isArchive(file)) {
+                FileSystem archive = FileSystems.newFileSystem(file, (ClassLoader) null);
+                archives.add(archive);
+                for (Path root : archive.getRootDirectories()) {
+                    files.addAll(collectDirectory(root));
+                }
+            } else if (Files.isDirectory(file)) {
+                files.addAll(collectDirectory(file));
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @param directory - a directory, on any file system
+     * @return - the sjava files under the directory, plain or compressed, sorted by their path
+     * @throws IOException
+     */
+    private static List<Path> collectDirectory(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            return walk.filter(p -> Files.isRegularFile(p) && (p.toString().endsWith(SJAVA_SUFFIX) ||
+                    p.toString().endsWith(GZIP_SJAVA_SUFFIX))).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @param file - a path
+     * @return - true if the path is a zip or jar file
+     */
+    public static boolean isArchive(Path file) {
+        for (String suffix : ARCHIVE_SUFFIXES) {
+            if (file.toString().endsWith(suffix) && Files.isRegularFile(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param file - a file to check
+     * @return - the name of the file in the results. a file inside an archive is named by the path of the
+     * archive and its path inside it, separated by ARCHIVE_SEPARATOR
+     */
+    public static String nameOf(Path file) {
+        if (file.getFileSystem() == FileSystems.getDefault()) {
+            return file.toString();
+        }
+        return file.getFileSystem() + ARCHIVE_SEPARATOR + file;
+    }
+
+    /**
+     * checks the given files in parallel. the largest files are submitted first, so a big file doesn't
+     * start last and hold up the whole run
+     *
+     * @param files - files to check
+     * @return - the results, in the order of the given files
+     */
+    public static CheckResult[] checkAll(List<Path> files) {
+        return checkAll(files, null);
+    }
+
+    /**
+     * checks the given files in parallel, answering unchanged files from the given cache
+     *
+     * @param files - files to check
+     * @param cache - the cache to answer unchanged files from, null to check every file
+     * @return - the results, in the order of the given files
+     */
+    public static CheckResult[] checkAll(List<Path> files, ResultCache cache) {
+        return checkAll(files, cache, null);
+    }
+
+    /**
+     * checks the given files in parallel, answering unchanged files from the given cache. the statistics
+     * of the files are added from all the threads at once. a file whose check fails with an unexpected
+     * exception gets IO_ERROR with the exception as its message, so it doesn't lose the results of the
+     * other files
+     *
+     * @param files - files to check
+     * @param cache - the cache to answer unchanged files from, null to check every file
+     * @param stats - the statistics of the run to add each file to, null to keep none
+     * @return - the results, in the order of the given files
+     */
+    public static CheckResult[] checkAll(List<Path> files, ResultCache cache, RunStats stats) {
+        return checkLargestFirst(files, index -> cache == null ?
+                Sjavac.check(files.get(index), false, stats) : cache.check(files.get(index), false, stats));
+    }
+
+    /**
+     * runs a check of each of the given files on a work-stealing pool. the largest files are submitted
+     * first, so a big file doesn't start last and hold up the whole run. a check which fails with an
+     * unexpected exception gets IO_ERROR with the exception as its message, so it doesn't lose the
+     * results of the other files
+     *
+     * @param files - files to check, on any file system
+     * @param check - the check of the file of an index
+     * @param <E>   - the exception which stops the whole run
+     * @return - the results, in the order of the given files
+     * @throws E - the first exception of this type thrown by a check, after all the checks ended
+     */
+    static <E extends Exception> CheckResult[] checkLargestFirst(List<Path> files, FileCheck<E> check)
+            throws E {
+        CheckResult[] results = new CheckResult[files.size()];
+        long[] sizes = new long[files.size()];
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < order.length; i++) {
+            try {
+                sizes[i] = Files.size(files.get(i));
+            } catch (IOException e) { // the check reports the error
+                sizes[i] = 0;
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> sizes[i]).reversed());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int index : order) {
+                tasks.add(pool.submit(() -> {
+                    try {
+                        results[index] = check.check(index);
+                    } catch (RuntimeException e) {
+                        results[index] = new CheckResult(CheckResult.IO_ERROR, CHECK_FAILED + e);
+                    } catch (Exception e) { // only an E, the one exception a check may throw
+                        failure.compareAndSet(null, e);
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (failure.get() != null) {
+            @SuppressWarnings("unchecked")
+            E e = (E) failure.get();
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * the check of a single file of a batch
+     *
+     * @param <E> - the exception which stops the whole batch
+     */
+    interface FileCheck<E extends Exception> {
+        /**
+         * @param index - the index of the file in the batch
+         * @return - the result of the file
+         * @throws E - if the batch can't go on
+         */
+        CheckResult check(int index) throws E;
+    }
+}
@@ -0,0 +1,57 @@
+package oop.ex6.main;
+
+/**
+ * the outcome of checking a single file - the code Sjavac prints and the message that explains it
+ */
+public class CheckResult {
+    /**
+     * code printed for a legal file
+     */
+    public static int LEGAL = 0;
+    /**
+     * code printed for an illegal file
+     */
+    public static int ILLEGAL = 1;
+    /**
+     * code printed when the file could not be read
+     */
+    public static int IO_ERROR = 2;
+    /**
+     * the code of the result
+     */
+    private int code;
+    /**
+     * the error message, null for a legal file
+     */
+    private String message;
+
+    /**
+     * @param code    - the code of the result
+     * @param message - the error message, null for a legal file
+     */
+    public CheckResult(int code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    /**
+     * @return - the code of the result
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return - the error message, null for a legal file
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return - true if the file was legal
+     */
+    public boolean isLegal() {
+        return code == LEGAL;
+    }
+}
@@ -0,0 +1,262 @@
+package oop.ex6.main;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * a resident server which answers check requests on a loopback socket, so the checks run on a warm JVM.
+ * a request holds the program arguments and the standard input of the client, and the answer holds what
+ * Sjavac would have printed to its standard output and error streams. any local user can connect, so a
+ * request is limited in size and in the time it may take to arrive, and it may not use the options which
+ * write files, which would be written as the owner of the server
+ */
+public class CheckServer {
+    /**
+     * the port used when no port is given
+     */
+    public static int DEFAULT_PORT = 47474;
+    /**
+     * the size of the pending connections queue
+     */
+    private static int BACKLOG = 128;
+    /**
+     * the largest number of arguments of a request
+     */
+    private static int MAX_ARGUMENTS = 65536;
+    /**
+     * the largest number of bytes of the arguments and the input of a request together
+     */
+    private static int MAX_REQUEST_BYTES = 16 * 1024 * 1024;
+    /**
+     * milliseconds a read of a request may wait for the client before the connection is dropped, so idle
+     * connections don't hold the threads of the pool
+     */
+    private static int READ_TIMEOUT = 10000;
+    /**
+     * milliseconds the whole request may take to arrive, so a client can't hold a thread of the pool by
+     * sending a byte just before every read times out
+     */
+    private static int REQUEST_TIMEOUT = 30000;
+    /**
+     * the options a request may not use, since they write files
+     */
+    private static String[] REFUSED_OPTIONS = {Sjavac.STATS_FLAG, Sjavac.CACHE_FLAG};
+    /**
+     * the message of a request which uses a refused option
+     */
+    private static String REFUSED_OPTION = " is not accepted by the server";
+
+    /**
+     * accepts requests forever, answering them on a pool sized to the cores
+     *
+     * @param port - the loopback port to listen on
+     * @throws IOException
+     */
+    public static void serve(int port) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (ServerSocket server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress())) {
+            while (true) {
+                Socket client = server.accept();
+                pool.execute(() -> answer(client));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * reads a single request from the given client, runs it and writes back the answer
+     *
+     * @param client - the connection of the client
+     */
+    private static void answer(Socket client) {
+        try (Socket socket = client) {
+            RequestStream request = new RequestStream(socket);
+            DataInputStream in = new DataInputStream(request);
+            int count = in.readInt();
+            if (count < 0 || count > MAX_ARGUMENTS) {
+                throw new IOException("a request of " + count + " arguments");
+            }
+            String[] args = new String[count];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+            byte[] input = readBytes(in, MAX_REQUEST_BYTES - (int) request.consumed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            try (PrintStream outPrinter = new PrintStream(out, true);
+                 PrintStream errPrinter = new PrintStream(err, true)) {
+                String refused = refusedOption(args);
+                if (refused != null) {
+                    outPrinter.println(CheckResult.IO_ERROR);
+                    errPrinter.println(refused + REFUSED_OPTION);
+                } else {
+                    Sjavac.run(args, new ByteArrayInputStream(input), outPrinter, errPrinter);
+                }
+            }
+            DataOutputStream reply = new DataOutputStream(socket.getOutputStream());
+            writeBytes(reply, out.toByteArray());
+            writeBytes(reply, err.toByteArray());
+            reply.flush();
+        } catch (IOException | RuntimeException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * @param args - the arguments of a request
+     * @return - the first refused option among the arguments, null if there is none
+     */
+    private static String refusedOption(String[] args) {
+        for (String arg : args) {
+            for (String option : REFUSED_OPTIONS) {
+                if (arg.equals(option)) {
+                    return option;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * writes a request to the server
+     *
+     * @param out   - the stream of the connection
+     * @param args  - the program arguments
+     * @param input - the standard input to forward
+     * @throws IOException
+     */
+    public static void writeRequest(DataOutputStream out, String[] args, byte[] input) throws IOException {
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        writeBytes(out, input);
+        out.flush();
+    }
+
+    /**
+     * writes a length prefixed array of bytes
+     *
+     * @param out   - stream to write to
+     * @param bytes - the bytes to write
+     * @throws IOException
+     */
+    public static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * reads a length prefixed array of bytes
+     *
+     * @param in - stream to read from
+     * @return - the bytes read
+     * @throws IOException
+     */
+    public static byte[] readBytes(DataInputStream in) throws IOException {
+        return readBytes(in, Integer.MAX_VALUE);
+    }
+
+    /**
+     * reads a length prefixed array of bytes, refusing a length which is negative or over the given limit
+     * before anything is allocated
+     *
+     * @param in        - stream to read from
+     * @param maxLength - the largest length accepted
+     * @return - the bytes read
+     * @throws IOException - if the length is refused, or the bytes could not be read
+     */
+    private static byte[] readBytes(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException("a refused length of " + length + " bytes, the limit is " + maxLength);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * the stream of a request, which counts the bytes read from the client and refuses to read past the
+     * size limit of a request or its deadline. every read waits for the client at most until the deadline
+     */
+    private static class RequestStream extends FilterInputStream {
+        /**
+         * the connection of the client
+         */
+        private Socket socket;
+        /**
+         * the time in milliseconds by which the whole request must arrive
+         */
+        private long deadline;
+        /**
+         * the number of bytes read so far
+         */
+        private long consumed = 0;
+
+        /**
+         * @param socket - the connection of the client
+         * @throws IOException
+         */
+        private RequestStream(Socket socket) throws IOException {
+            super(socket.getInputStream());
+            this.socket = socket;
+            deadline = System.currentTimeMillis() + REQUEST_TIMEOUT;
+        }
+
+        @Override
+        public int read() throws IOException {
+            beforeRead();
+            int b = super.read();
+            if (b >= 0) {
+                afterRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            beforeRead();
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                afterRead(n);
+            }
+            return n;
+        }
+
+        /**
+         * sets the timeout of the next read to what is left of the request time, up to the read timeout
+         *
+         * @throws IOException - if the deadline of the request has passed
+         */
+        private void beforeRead() throws IOException {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                throw new IOException("a request which took more than " + REQUEST_TIMEOUT + " milliseconds");
+            }
+            socket.setSoTimeout((int) Math.min(READ_TIMEOUT, left));
+        }
+
+        /**
+         * @param n - the number of bytes just read
+         * @throws IOException - if the request is over the size limit
+         */
+        private void afterRead(int n) throws IOException {
+            consumed += n;
+            if (consumed > MAX_REQUEST_BYTES) {
+                throw new IOException("a request of more than " + MAX_REQUEST_BYTES + " bytes");
+            }
+        }
+    }
+}
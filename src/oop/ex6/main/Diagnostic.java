@@ -0,0 +1,46 @@
+package oop.ex6.main;
+
+/**
+ * an error found in a file, with the row it was found in
+ */
+public class Diagnostic {
+    /**
+     * the row of the error, starting at one
+     */
+    private int row;
+    /**
+     * the message of the error
+     */
+    private String message;
+
+    /**
+     * @param row     - the row of the error, starting at one
+     * @param message - the message of the error
+     */
+    public Diagnostic(int row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    /**
+     * @return - the row of the error, starting at one
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * @return - the message of the error
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return - the row and the message of the error, in a single line
+     */
+    @Override
+    public String toString() {
+        return "line " + row + ": " + message.replace("\n", " - ");
+    }
+}
@@ -0,0 +1,127 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * checks many files with both the reference solution and this program in a single jvm, in parallel, and
+ * reports the files whose codes differ. the results of the reference are kept in a cache seeded from the
+ * tests info file, so the reference is loaded, once, only for files it never saw. usage:
+ * DifferentialRunner [reference.jar] [file-or-directory...], where the defaults are the jar and the tests
+ * of the tester, from the root of the project
+ */
+public class DifferentialRunner {
+    /**
+     * the reference jar of the tester, used when no jar is given
+     */
+    private static String DEFAULT_JAR = "src/Tester_files/school_solution.jar";
+    /**
+     * the tests of the tester, checked when no files are given
+     */
+    private static String[] DEFAULT_TESTS = {"src/Tester_files/tests"};
+    /**
+     * the file of the cache of the results of the reference
+     */
+    private static String CACHE_FILE = "src/Tester_files/reference_results.txt";
+    /**
+     * the tests info file, which records the code of each school test
+     */
+    private static String TESTS_INFO = "src/Tester_files/SchoolTests_info.txt";
+    /**
+     * the directory of the tests named in the tests info file
+     */
+    private static String INFO_TESTS = "src/Tester_files/tests/SchoolTests";
+    /**
+     * the suffix of the jar argument
+     */
+    private static String JAR_SUFFIX = ".jar";
+    /**
+     * separates the parts of a line of the report
+     */
+    private static String SEPARATOR = " ";
+    /**
+     * starts the message of a mismatch
+     */
+    private static String MESSAGE_INDENT = "    ";
+    /**
+     * nanoseconds in a millisecond
+     */
+    private static long NANOS_PER_MILLI = 1000000;
+
+    public static void main(String[] args) {
+        run(args, System.out, System.err);
+    }
+
+    /**
+     * checks the given files with both solutions and prints a line for each mismatch, sorted by the path
+     * of the file, followed by a summary
+     *
+     * @param args - the reference jar, optional, followed by files and directories
+     * @param out  - the stream to print the report to
+     * @param err  - the stream to print the error messages to
+     */
+    public static void run(String[] args, PrintStream out, PrintStream err) {
+        long start = System.nanoTime();
+        Path jar = Paths.get(DEFAULT_JAR);
+        if (args.length > 0 && args[0].endsWith(JAR_SUFFIX)) {
+            jar = Paths.get(args[0]);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        try (ReferenceCache reference = new ReferenceCache(jar, Paths.get(CACHE_FILE))) {
+            if (Files.isRegularFile(Paths.get(TESTS_INFO))) {
+                reference.seed(Paths.get(TESTS_INFO), Paths.get(INFO_TESTS));
+            }
+            List<Path> files = BatchRunner.collectFiles(args.length > 0 ? args : DEFAULT_TESTS);
+            files.sort(Comparator.comparing(Path::toString));
+            CheckResult[][] results = compareAll(reference, files);
+            int passed = 0;
+            for (int i = 0; i < files.size(); i++) {
+                CheckResult expected = results[i][0];
+                CheckResult actual = results[i][1];
+                if (expected.getCode() == actual.getCode()) {
+                    passed++;
+                    continue;
+                }
+                out.println(files.get(i) + SEPARATOR + "reference=" + expected.getCode() + SEPARATOR +
+                        "ours=" + actual.getCode());
+                if (actual.getMessage() != null) {
+                    out.println(MESSAGE_INDENT + actual.getMessage());
+                }
+            }
+            out.printf("passed %d out of %d tests in %d ms%n", passed, files.size(),
+                    (System.nanoTime() - start) / NANOS_PER_MILLI);
+        } catch (IOException e) {
+            err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * checks the given files with both solutions in parallel, on the pool of a batch run. a file whose
+     * check fails with an unexpected exception gets IO_ERROR as our result, and NO_CODE as the result of
+     * the reference if it was the reference which failed
+     *
+     * @param reference - the cache of the results of the reference solution
+     * @param files     - files to check, on the default file system
+     * @return - the result of the reference and then ours, for each file in the given order
+     * @throws IOException - if the reference could not be loaded
+     */
+    public static CheckResult[][] compareAll(ReferenceCache reference, List<Path> files) throws IOException {
+        CheckResult[] expected = new CheckResult[files.size()];
+        CheckResult[] actual = BatchRunner.checkLargestFirst(files, index -> {
+            expected[index] = reference.check(files.get(index));
+            return Sjavac.check(files.get(index), false, null);
+        });
+        CheckResult[][] results = new CheckResult[files.size()][];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new CheckResult[]{expected[i] != null ? expected[i] :
+                    new CheckResult(ReferenceSolution.NO_CODE, null), actual[i]};
+        }
+        return results;
+    }
+}
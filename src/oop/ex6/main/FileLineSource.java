@@ -0,0 +1,180 @@
+package oop.ex6.main;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * the lines of a file, made straight from its bytes when all of them are ascii, which nearly every file
+ * is. an ascii byte is the character itself, so such a line is copied once into its string without
+ * decoding, and the file is never held as characters. a file which isn't ascii is decoded as utf-8, as
+ * the other sources do. a small file is read whole on every open, and a large file on the default file
+ * system is mapped, so only the pages of the current lines are kept in memory
+ */
+class FileLineSource implements LineSource {
+    /**
+     * files larger than this number of bytes are mapped rather than read, when they can be
+     */
+    private static long MAPPING_THRESHOLD = 1024 * 1024;
+    /**
+     * the bits of a long which are set if any of its eight bytes isn't ascii
+     */
+    private static long NON_ASCII_BITS = 0x8080808080808080L;
+    /**
+     * the first size of the buffer a line of a mapped file is copied to
+     */
+    private static int LINE_BUFFER_SIZE = 256;
+    /**
+     * the file
+     */
+    private Path path;
+    /**
+     * true if the mapped file is ascii, null until it is first mapped
+     */
+    private volatile Boolean isAscii;
+
+    /**
+     * @param path - path of a file
+     */
+    FileLineSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Reader open() throws IOException {
+        long size = Files.size(path);
+        if (size <= MAPPING_THRESHOLD) {
+            byte[] bytes = Files.readAllBytes(path);
+            if (isAscii(ByteBuffer.wrap(bytes))) {
+                return new AsciiReader(ByteBuffer.wrap(bytes));
+            }
+            return of(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes),
+                    StandardCharsets.UTF_8.newDecoder())));
+        }
+        if (size > Integer.MAX_VALUE || path.getFileSystem() != FileSystems.getDefault() ||
+                Boolean.FALSE.equals(isAscii)) { // a file which can't be mapped is decoded in chunks
+            return of(Files.newBufferedReader(path));
+        }
+        ByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (isAscii == null) {
+            isAscii = isAscii(bytes);
+        }
+        return isAscii ? new AsciiReader(bytes) : of(Files.newBufferedReader(path));
+    }
+
+    /**
+     * @param bytes - bytes of a file, from the start of the buffer to its limit
+     * @return - true if all of the bytes are ascii. the bytes are checked eight at a time
+     */
+    private static boolean isAscii(ByteBuffer bytes) {
+        int limit = bytes.limit();
+        int i = 0;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            if ((bytes.getLong(i) & NON_ASCII_BITS) != 0) {
+                return false;
+            }
+        }
+        for (; i < limit; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param reader - a reader of the decoded file
+     * @return - a reader of its lines
+     */
+    private static Reader of(BufferedReader reader) {
+        return new Reader() {
+            @Override
+            public String readLine() throws IOException {
+                return reader.readLine();
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * reads the lines of ascii bytes, which end as those of a BufferedReader do, with a line feed, a
+     * carriage return or both
+     */
+    private static class AsciiReader implements Reader {
+        /**
+         * the bytes of the file
+         */
+        private ByteBuffer bytes;
+        /**
+         * the start of the next line
+         */
+        private int position;
+        /**
+         * the buffer a line is copied to when the bytes are not in an array, which grows with the longest
+         * line
+         */
+        private byte[] line;
+
+        /**
+         * @param bytes - the bytes of the file, from the start of the buffer to its limit
+         */
+        private AsciiReader(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String readLine() {
+            int limit = bytes.limit();
+            if (position >= limit) {
+                return null;
+            }
+            int end = position;
+            while (end < limit && bytes.get(end) != '\n' && bytes.get(end) != '\r') {
+                end++;
+            }
+            String result = toString(position, end);
+            if (end + 1 < limit && bytes.get(end) == '\r' && bytes.get(end + 1) == '\n') {
+                end++;
+            }
+            position = end + 1;
+            return result;
+        }
+
+        /**
+         * @param start - the start of a line
+         * @param end   - the end of the line
+         * @return - the line
+         */
+        private String toString(int start, int end) {
+            if (bytes.hasArray()) {
+                return new String(bytes.array(), bytes.arrayOffset() + start, end - start,
+                        StandardCharsets.ISO_8859_1);
+            }
+            if (line == null || line.length < end - start) {
+                line = new byte[Math.max(end - start, line == null ? LINE_BUFFER_SIZE : line.length * 2)];
+            }
+            bytes.position(start);
+            bytes.get(line, 0, end - start);
+            return new String(line, 0, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package oop.ex6.main;
 
 /**
- * a class for general exceptions
+ * a class for general exceptions. the checks report only the message of an exception, so none of the
+ * exceptions of the checks fill in a stack trace, which costs more than the rest of the check of a short
+ * illegal file
  */
 public class GeneralException extends Exception {
     private static final long serialVersionUID = 1l;
 
     public GeneralException(String s) {
-        super(s);
+        super(s, null, false, false); // without a stack trace
     }
 }
@@ -0,0 +1,170 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * checks the versions of a single file again and again, and checks the body of a method again only if
+ * it changed since the last version. the global scope is checked every time, and if the global lines or
+ * the declaration lines of the methods changed, all of the methods are checked again
+ */
+public class IncrementalChecker {
+    /**
+     * the algorithm of the fingerprints
+     */
+    private static String DIGEST_ALGORITHM = "SHA-256";
+    /**
+     * separates the lines of a fingerprint
+     */
+    private static byte LINE_SEPARATOR = '\n';
+    /**
+     * zero
+     */
+    private static int ZERO = 0;
+    /**
+     * the fingerprint of the lines of the global scope in the last version, which the bodies of all
+     * methods depend on
+     */
+    private byte[] globalsFingerprint;
+    /**
+     * the result of each method of the last version, by the name of the method
+     */
+    private HashMap<String, MethodResult> results = new HashMap<>();
+    /**
+     * the number of methods whose body was checked in the last version
+     */
+    private int checkedCount = ZERO;
+
+    /**
+     * the result of checking the body of a method
+     */
+    private static class MethodResult {
+        /**
+         * the fingerprint of the body of the method
+         */
+        private byte[] fingerprint;
+        /**
+         * the error found in the body, null if it is legal
+         */
+        private Exception error;
+
+        /**
+         * @param fingerprint - the fingerprint of the body of the method
+         * @param error       - the error found in the body, null if it is legal
+         */
+        private MethodResult(byte[] fingerprint, Exception error) {
+            this.fingerprint = fingerprint;
+            this.error = error;
+        }
+    }
+
+    /**
+     * checks a new version of the file. the result is the same as checking the whole version with a new
+     * parser
+     *
+     * @param fileLines - the lines of the new version
+     * @return - the result of the check
+     */
+    public CheckResult check(List<String> fileLines) {
+        checkedCount = ZERO;
+        Parser parser = new Parser();
+        try {
+            parser.parseGlobalScope(fileLines);
+        } catch (IOException e) {
+            return new CheckResult(CheckResult.IO_ERROR, e.getMessage());
+        } catch (GeneralException e) {
+            return new CheckResult(CheckResult.ILLEGAL, e.getMessage());
+        }
+        LineIndex lineIndex = parser.getLineIndex();
+        byte[] globals = globalsFingerprint(fileLines, lineIndex);
+        if (!Arrays.equals(globals, globalsFingerprint)) { // every method may depend on what changed
+            globalsFingerprint = globals;
+            results.clear();
+        }
+        HashMap<String, MethodResult> newResults = new HashMap<>();
+        Exception firstError = null;
+        for (int i = 0; i < lineIndex.getMethodCount(); i++) {
+            String name = parser.getAllMethods().get(i).getName();
+            byte[] body = fingerprint(fileLines.subList(lineIndex.getMethodStart(i),
+                    lineIndex.getMethodEnd(i)));
+            MethodResult result = results.get(name);
+            if (result == null || !Arrays.equals(result.fingerprint, body)) {
+                result = new MethodResult(body, parser.checkMethod(i, fileLines));
+                checkedCount++;
+            }
+            newResults.put(name, result);
+            if (firstError == null) {
+                firstError = result.error;
+            }
+        }
+        results = newResults;
+        if (firstError == null) {
+            return new CheckResult(CheckResult.LEGAL, null);
+        }
+        int code = firstError instanceof IOException ? CheckResult.IO_ERROR : CheckResult.ILLEGAL;
+        return new CheckResult(code, firstError.getMessage());
+    }
+
+    /**
+     * @return - the number of methods whose body was checked in the last version, the others were
+     * unchanged
+     */
+    public int getCheckedCount() {
+        return checkedCount;
+    }
+
+    /**
+     * @param fileLines - the lines of the file
+     * @param lineIndex - the index of the lines of the file
+     * @return - the fingerprint of the lines of the global scope, which include the declaration lines of
+     * the methods
+     */
+    private static byte[] globalsFingerprint(List<String> fileLines, LineIndex lineIndex) {
+        MessageDigest digest = newDigest();
+        for (int row = 1; row <= lineIndex.size(); row++) {
+            if (lineIndex.getDepth(row) == ZERO) {
+                update(digest, fileLines.get(row - 1));
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @param lines - lines to fingerprint
+     * @return - the fingerprint of the lines
+     */
+    private static byte[] fingerprint(List<String> lines) {
+        MessageDigest digest = newDigest();
+        for (String line : lines) {
+            update(digest, line);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * adds a line to a fingerprint
+     *
+     * @param digest - the fingerprint to add the line to
+     * @param line   - the line to add
+     */
+    private static void update(MessageDigest digest, String line) {
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+        digest.update(LINE_SEPARATOR);
+    }
+
+    /**
+     * @return - a new digest for a fingerprint
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) { // every java platform has it
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package oop.ex6.main;
+
+import java.util.regex.Pattern;
+
+/**
+ * classifies the lines of a file. a line may fit more than one kind (a return line is also a statement,
+ * and a comment may end with a bracket), so the kinds of a line are returned as a mask of bits.
+ * the scanner walks the line once, without regex and without allocating; the patterns it replaces
+ * are kept as a reference, so the two can be checked against each other
+ */
+public class LineClassifier {
+    /**
+     * a line containing only whitespaces
+     */
+    public static int BLANK = 1;
+    /**
+     * a comment line
+     */
+    public static int COMMENT = 1 << 1;
+    /**
+     * a line that ends with an opening bracket
+     */
+    public static int BLOCK_OPEN = 1 << 2;
+    /**
+     * a line containing only a closing bracket
+     */
+    public static int BLOCK_CLOSE = 1 << 3;
+    /**
+     * a return line
+     */
+    public static int RETURN = 1 << 4;
+    /**
+     * a line that ends with a semicolon
+     */
+    public static int STATEMENT = 1 << 5;
+    /**
+     * the mask of a line that fits none of the kinds
+     */
+    public static int ILLEGAL = 0;
+    /**
+     * the keyword of a return line
+     */
+    private static String RETURN_KEYWORD = "return";
+
+    /**
+     * classifies a line in a single walk over its characters
+     *
+     * @param line - the line to classify
+     * @return - the mask of the kinds the line fits
+     */
+    public static int scan(CharSequence line) {
+        int length = line.length();
+        int first = -1;
+        int last = -1;
+        int nonBlank = 0;
+        int firstTerminator = -1;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (firstTerminator < 0 && isLineTerminator(c)) {
+                firstTerminator = i;
+            }
+            if (!isWhitespace(c)) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                nonBlank++;
+            }
+        }
+        if (first < 0) {
+            return BLANK;
+        }
+        int kinds = ILLEGAL;
+        if (firstTerminator < 0 && length > 1 && line.charAt(0) == '/' && line.charAt(1) == '/') {
+            kinds |= COMMENT;
+        }
+        boolean isSingleLine = firstTerminator < 0 || firstTerminator > last; // "." can't match a break
+        char end = line.charAt(last);
+        if (end == '{' && isSingleLine) {
+            kinds |= BLOCK_OPEN;
+        } else if (end == '}' && nonBlank == 1) {
+            kinds |= BLOCK_CLOSE;
+        } else if (end == ';') {
+            if (last > 0 && isSingleLine) {
+                kinds |= STATEMENT;
+            }
+            if (nonBlank == RETURN_KEYWORD.length() + 1 && startsWith(line, first, RETURN_KEYWORD)) {
+                kinds |= RETURN;
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * classifies a line with the reference patterns
+     *
+     * @param line - the line to classify
+     * @return - the mask of the kinds the line fits
+     */
+    public static int match(String line) {
+        int kinds = ILLEGAL;
+        if (Reference.WHITESPACE.matcher(line).matches()) {
+            kinds |= BLANK;
+        }
+        if (Reference.COMMENT_LINE.matcher(line).matches()) {
+            kinds |= COMMENT;
+        }
+        if (Reference.START_OF_BLOCK.matcher(line).matches()) {
+            kinds |= BLOCK_OPEN;
+        }
+        if (Reference.END_OF_BLOCK.matcher(line).matches()) {
+            kinds |= BLOCK_CLOSE;
+        }
+        if (Reference.RETURN_LINE.matcher(line).matches()) {
+            kinds |= RETURN;
+        }
+        if (Reference.END_OF_ACTION.matcher(line).matches()) {
+            kinds |= STATEMENT;
+        }
+        return kinds;
+    }
+
+    /**
+     * classifies a line with the scanner, or with the reference patterns in reference mode
+     *
+     * @param line            - the line to classify
+     * @param isReferenceMode - true to classify with the reference patterns
+     * @return - the mask of the kinds the line fits
+     */
+    public static int classify(String line, boolean isReferenceMode) {
+        return isReferenceMode ? match(line) : scan(line);
+    }
+
+    /**
+     * @param kinds - a mask of kinds
+     * @param kind  - a single kind
+     * @return - true if the mask contains the kind
+     */
+    public static boolean is(int kinds, int kind) {
+        return (kinds & kind) != 0;
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if the character is matched by "\s"
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if the character can't be matched by "."
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * @param line   - a line
+     * @param start  - index in the line
+     * @param prefix - the expected characters
+     * @return - true if the line has the given characters at the given index
+     */
+    private static boolean startsWith(CharSequence line, int start, String prefix) {
+        if (start + prefix.length() > line.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * the reference patterns, compiled only when a line is first classified with them. the scanner is
+     * used everywhere but in reference mode, so a normal run never compiles them
+     */
+    private static class Reference {
+        /**
+         * the reference pattern of a blank line
+         */
+        private static Pattern WHITESPACE = Pattern.compile("\\s*");
+        /**
+         * the reference pattern of a comment line
+         */
+        private static Pattern COMMENT_LINE = Pattern.compile("//.*");
+        /**
+         * the reference pattern of a start of block
+         */
+        private static Pattern START_OF_BLOCK = Pattern.compile(".*\\{\\s*");
+        /**
+         * the reference pattern of an end of block
+         */
+        private static Pattern END_OF_BLOCK = Pattern.compile("\\s*}\\s*");
+        /**
+         * the reference pattern of a general action line
+         */
+        private static Pattern END_OF_ACTION = Pattern.compile(".+;\\s*");
+        /**
+         * the reference pattern of a return line
+         */
+        private static Pattern RETURN_LINE = Pattern.compile("\\s*return\\s*;\\s*");
+    }
+}
@@ -0,0 +1,147 @@
+package oop.ex6.main;
+
+import java.util.Arrays;
+
+/**
+ * a compact index of the lines of a file, built in the first pass - the kinds and the scope depth of
+ * every line, and the first and last rows of every method. rows are counted from one, as in the error
+ * messages. an index may keep only the rows of the methods, so its size doesn't grow with the file
+ */
+public class LineIndex {
+    /**
+     * the capacity of a new index
+     */
+    private static int INITIAL_CAPACITY = 64;
+    /**
+     * true if the kinds and depth of every line are kept
+     */
+    private boolean hasLines;
+    /**
+     * the kinds of each line, as returned by the LineClassifier
+     */
+    private byte[] kinds = new byte[0];
+    /**
+     * the scope depth of each line
+     */
+    private int[] depths = new int[0];
+    /**
+     * number of lines in the index
+     */
+    private int size = 0;
+    /**
+     * the row of each methods declaration line
+     */
+    private int[] methodStarts = new int[INITIAL_CAPACITY];
+    /**
+     * the row of each methods closing bracket
+     */
+    private int[] methodEnds = new int[INITIAL_CAPACITY];
+    /**
+     * number of methods in the index
+     */
+    private int methodCount = 0;
+
+    /**
+     * @param hasLines - true to keep the kinds and depth of every line, false to keep only the rows of
+     *                 the methods
+     */
+    public LineIndex(boolean hasLines) {
+        this.hasLines = hasLines;
+    }
+
+    /**
+     * adds the next line of the file
+     *
+     * @param lineKinds - the kinds of the line
+     * @param depth     - the scope depth of the line
+     */
+    public void addLine(int lineKinds, int depth) {
+        if (!hasLines) {
+            size++;
+            return;
+        }
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, Math.max(INITIAL_CAPACITY, size * 2));
+            depths = Arrays.copyOf(depths, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        kinds[size] = (byte) lineKinds;
+        depths[size] = depth;
+        size++;
+    }
+
+    /**
+     * marks the start of a new method
+     *
+     * @param row - the row of the methods declaration line
+     */
+    public void startMethod(int row) {
+        if (methodCount == methodStarts.length) {
+            methodStarts = Arrays.copyOf(methodStarts, methodCount * 2);
+            methodEnds = Arrays.copyOf(methodEnds, methodCount * 2);
+        }
+        methodStarts[methodCount] = row;
+        methodCount++;
+    }
+
+    /**
+     * marks the end of the last method started
+     *
+     * @param row - the row of the methods closing bracket
+     */
+    public void endMethod(int row) {
+        methodEnds[methodCount - 1] = row;
+    }
+
+    /**
+     * @return - true if the kinds and depth of every line are kept
+     */
+    public boolean hasLines() {
+        return hasLines;
+    }
+
+    /**
+     * @param row - a row of the file
+     * @return - the kinds of the line
+     */
+    public int getKinds(int row) {
+        return kinds[row - 1] & 0xFF;
+    }
+
+    /**
+     * @param row - a row of the file
+     * @return - the scope depth of the line
+     */
+    public int getDepth(int row) {
+        return depths[row - 1];
+    }
+
+    /**
+     * @return - the number of lines in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param method - index of a method, in the order of the file
+     * @return - the row of the methods declaration line
+     */
+    public int getMethodStart(int method) {
+        return methodStarts[method];
+    }
+
+    /**
+     * @param method - index of a method, in the order of the file
+     * @return - the row of the methods closing bracket
+     */
+    public int getMethodEnd(int method) {
+        return methodEnds[method];
+    }
+
+    /**
+     * @return - the number of methods in the index
+     */
+    public int getMethodCount() {
+        return methodCount;
+    }
+}
@@ -0,0 +1,101 @@
+package oop.ex6.main;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * the lines of a file, which are read from the first line again for every pass of the parser
+ */
+public interface LineSource {
+
+    /**
+     * reads the lines one after the other
+     */
+    interface Reader extends Closeable {
+        /**
+         * @return - the next line, null after the last line
+         * @throws IOException
+         */
+        String readLine() throws IOException;
+    }
+
+    /**
+     * @return - a reader which starts at the first line
+     * @throws IOException
+     */
+    Reader open() throws IOException;
+
+    /**
+     * @param lines - lines already in memory
+     * @return - a source of the given lines
+     */
+    static LineSource of(List<String> lines) {
+        return () -> new Reader() {
+            private Iterator<String> iterator = lines.iterator();
+
+            @Override
+            public String readLine() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * @param path - path of a file
+     * @return - a source which reads the file again on every read, without decoding it if it is ascii.
+     * a large file is mapped or decoded in chunks, so only its current lines are kept in memory
+     */
+    static LineSource of(Path path) {
+        return new FileLineSource(path);
+    }
+
+    /**
+     * @param path - path of a gzip file
+     * @return - a source which decompresses the file again on every read, so only the current chunk is
+     * kept in memory
+     */
+    static LineSource ofGzip(Path path) {
+        return () -> new Reader() {
+            private BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8.newDecoder()));
+
+            @Override
+            public String readLine() throws IOException {
+                return reader.readLine();
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * @param source - a source of lines
+     * @return - all of the lines of the source
+     * @throws IOException
+     */
+    static List<String> readAll(LineSource source) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Reader reader = source.open()) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
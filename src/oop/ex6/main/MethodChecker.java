@@ -0,0 +1,315 @@
+package oop.ex6.main;
+
+import oop.ex6.ifAndWhileBlocks.BlockException;
+import oop.ex6.ifAndWhileBlocks.BlockFactory;
+import oop.ex6.methods.MethodFactory;
+import oop.ex6.methods.MethodRegistry;
+import oop.ex6.variables.SymbolTable;
+import oop.ex6.variables.Variable;
+import oop.ex6.variables.VariableException;
+import oop.ex6.variables.VariableFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * checks the bodies of methods, after the first pass found all the global variables and methods. a
+ * checker has its own scopes, so methods can be checked by different checkers at the same time
+ */
+public class MethodChecker {
+    /**
+     * a pattern suit representing a method call
+     */
+    private static Pattern METHOD_CALL = Pattern.compile(MethodFactory.METHOD_NAME +
+            BlockFactory.BRACKETS_CONTENT + ";\\s*");
+    /**
+     * a message when there is no return statement in a method
+     */
+    private static String NO_RETURN_STATEMENT = "no return statement at the end of the method";
+    /**
+     * a message when an illegal line appears in a method
+     */
+    private static String ILLEGAL_METHOD_LINE = "there is an illegal line inside a method";
+    /**
+     * zero
+     */
+    private static int ZERO = 0;
+    /**
+     * one
+     */
+    private static int ONE = 1;
+    /**
+     * TWO
+     */
+    private static int TWO = 2;
+    /**
+     * the kinds and scope depth of every line and the rows of every method
+     */
+    private LineIndex lineIndex;
+    /**
+     * the programs methods
+     */
+    private MethodRegistry allMethods;
+    /**
+     * a table of the variables of each open scope, starting with the global variables
+     */
+    private SymbolTable scopeVariables;
+    /**
+     * a counter to follow the scope depth we are in
+     */
+    private int scopeCounter = 0;
+    /**
+     * true if the lines are classified with the reference patterns instead of the scanner
+     */
+    private boolean isReferenceMode;
+    /**
+     * the last row read, starting at one
+     */
+    private int row;
+    /**
+     * the number of blocks created so far, to sample the recorded blocks
+     */
+    private int blocks = 0;
+    /**
+     * the statistics the checks are added to, null if there are none
+     */
+    private ParseStats stats = null;
+
+    /**
+     * @param lineIndex       - the index built in the first pass
+     * @param allMethods      - the programs methods
+     * @param globals         - a table whose global scope is frozen
+     * @param isReferenceMode - true to classify the lines with the reference patterns instead of the
+     *                        scanner
+     */
+    public MethodChecker(LineIndex lineIndex, MethodRegistry allMethods, SymbolTable globals,
+                         boolean isReferenceMode) {
+        this.lineIndex = lineIndex;
+        this.allMethods = allMethods;
+        this.scopeVariables = globals.withGlobals();
+        this.isReferenceMode = isReferenceMode;
+    }
+
+    /**
+     * @param stats - the statistics to add the checks to - the time of each line, the variables, the calls
+     *              and the largest scope. null to keep none
+     */
+    public void setStats(ParseStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * checks the body of a method
+     *
+     * @param method - index of the method, in the order of the file
+     * @param lines  - reader of the files lines, after the methods declaration line
+     * @throws IOException
+     * @throws GeneralException
+     * @throws BlockException
+     * @throws VariableException
+     */
+    public void check(int method, LineSource.Reader lines) throws IOException, GeneralException,
+            BlockException, VariableException {
+        ParserEvents.MethodCheck event = ParserEvents.isRecording() ? new ParserEvents.MethodCheck() : null;
+        long lookups = scopeVariables.getLookups();
+        long pushes = scopeVariables.getPushes();
+        long declarations = scopeVariables.getDeclarations();
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            scopeVariables.push();
+            for (Variable param : allMethods.get(method).getParameters()) {
+                scopeVariables.declare(param);
+            }
+            scopeCounter++;
+            row = lineIndex.getMethodStart(method);
+            checkLocalScope(lines, scopeVariables, lineIndex.getMethodStart(method),
+                    lineIndex.getMethodEnd(method));
+        } finally {
+            if (stats != null) {
+                stats.add(ParseStats.VARIABLES, scopeVariables.getDeclarations() - declarations);
+                stats.max(ParseStats.PEAK_LOCAL_SCOPE, scopeVariables.getPeakScopeSize());
+            }
+            if (event != null && ParserEvents.shouldCommit(event)) {
+                event.method = allMethods.get(method).getName();
+                event.lines = row - lineIndex.getMethodStart(method);
+                event.lookups = scopeVariables.getLookups() - lookups;
+                event.pushes = scopeVariables.getPushes() - pushes;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return - the last row read, starting at one. when the check of a method fails, it is the row of
+     * the error
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * goes inside a local scope and checks if its lines are legal
+     *
+     * @param lines        - reader of the files lines, after the beginning of the scope
+     * @param allVariables - table of all the variables of the program
+     * @param startRow     - beginning of the scope
+     * @param endRow       - the row of the closing bracket of the scope
+     * @return - true if legal, false otherwise
+     * @throws IOException
+     * @throws GeneralException
+     * @throws BlockException
+     * @throws VariableException
+     */
+    private boolean checkLocalScope(LineSource.Reader lines, SymbolTable allVariables,
+                                    int startRow, int endRow) throws IOException, GeneralException,
+            BlockException, VariableException {
+        Boolean[] isLastReturn = {false};
+        int depth = ONE;
+        for (int i = startRow; i < endRow; i++) {
+            String line = lines.readLine();
+            long start = stats == null ? ZERO : System.nanoTime();
+            row = i + ONE;
+            int kinds;
+            int scopeDepth;
+            if (lineIndex.hasLines()) {
+                kinds = lineIndex.getKinds(i + ONE);
+                scopeDepth = lineIndex.getDepth(i + ONE);
+            } else { // find the kinds and depth again, as the first pass did
+                kinds = LineClassifier.classify(line, isReferenceMode);
+                scopeDepth = depth;
+                if (LineClassifier.is(kinds, LineClassifier.BLOCK_CLOSE)) {
+                    depth--;
+                } else if (LineClassifier.is(kinds, LineClassifier.BLOCK_OPEN) &&
+                        !LineClassifier.is(kinds, LineClassifier.COMMENT)) {
+                    depth++;
+                }
+            }
+            boolean res = localScopeHelper(line, kinds, scopeDepth, allVariables, isLastReturn);
+            if (LineClassifier.is(kinds, LineClassifier.BLOCK_OPEN)) {
+                createBlock(line, i, allVariables);
+                allVariables.push();
+                scopeCounter++;
+                res = true;
+            }
+            if (!res) {
+                throw new GeneralException(ILLEGAL_METHOD_LINE);
+            }
+            if (stats != null) {
+                stats.timeLine(ParseStats.SECOND_PASS, kinds, System.nanoTime() - start);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * checks the line of an if or while block, and records one of every ParserEvents.BLOCK_SAMPLE blocks
+     *
+     * @param line         - the block line
+     * @param i            - the row of the line, starting at zero
+     * @param allVariables - table of all the variables of the program
+     * @throws BlockException
+     */
+    private void createBlock(String line, int i, SymbolTable allVariables) throws BlockException {
+        if (++blocks % ParserEvents.BLOCK_SAMPLE != ZERO || !ParserEvents.isRecording()) {
+            BlockFactory.createBlock(line, i, allVariables);
+            return;
+        }
+        ParserEvents.BlockCreation event = new ParserEvents.BlockCreation();
+        event.begin();
+        BlockFactory.createBlock(line, i, allVariables);
+        if (ParserEvents.shouldCommit(event)) {
+            event.line = line;
+            event.row = i + ONE;
+            event.depth = scopeCounter;
+            event.commit();
+        }
+    }
+
+    /**
+     * a helper for the check local scope method. receives a line and checks if its legal or not
+     *
+     * @param line         - line to check
+     * @param kinds        - the kinds of the line
+     * @param scopeDepth   - the scope depth of the line
+     * @param allVariables - table of all the program variables
+     * @param isLastReturn - did we pass the last return of the method we are in
+     * @return - true if it is a legal line
+     */
+    private boolean localScopeHelper(String line, int kinds, int scopeDepth,
+                                     SymbolTable allVariables, Boolean[] isLastReturn)
+            throws GeneralException, VariableException {
+        boolean isReturn = LineClassifier.is(kinds, LineClassifier.RETURN);
+        boolean isAction = LineClassifier.is(kinds, LineClassifier.STATEMENT);
+        if (scopeDepth == scopeCounter - ONE) { // we reached the end of the scope
+            return true;
+        }
+        if (LineClassifier.is(kinds, LineClassifier.STATEMENT | LineClassifier.BLOCK_OPEN)) {
+            isLastReturn[ZERO] = false;
+        }
+        if (LineClassifier.is(kinds, LineClassifier.BLOCK_CLOSE)) {
+            if (!isLastReturn[ZERO] && scopeDepth == ONE) {
+                throw new GeneralException(NO_RETURN_STATEMENT);
+            }
+            scopeCounter--;
+            if (allVariables.depth() > ONE) {
+                allVariables.pop();
+            }
+            return true;
+        }
+        if (isReturn && scopeDepth == ONE) { // the last return of the methods scope,
+            // next line should be only white-spaces or closing parentheses
+            isLastReturn[ZERO] = true;
+            return true;
+        } else if (isReturn || LineClassifier.is(kinds, LineClassifier.COMMENT | LineClassifier.BLANK)) {
+            return true;
+        } else if (isAction) {
+            return innerAction(line, allVariables);
+        }
+        return false;
+    }
+
+    /**
+     * checks if an action inside a method is legal or not
+     *
+     * @param line         - line of the action
+     * @param allVariables - table of all of the programs variables
+     * @return - true if legal
+     */
+    private boolean innerAction(String line, SymbolTable allVariables)
+            throws VariableException {
+        ArrayList<Variable> res = new ArrayList<>();
+        Matcher m1 = VariableFactory.DECLARATION_LINE_PATTERN.matcher(line);
+        Matcher m2 = VariableFactory.ASSIGNMENT_PATTERN.matcher(line);
+        Matcher m3 = METHOD_CALL.matcher(line);
+        if (m1.matches() && VariableFactory.parseDeclaration(line, allVariables, res, false)) {
+            return true;
+        }
+        if (m2.matches() && VariableFactory.parseAssignment(line, allVariables, res)) {
+            return true;
+        }
+        if (!m3.matches()) {
+            return false;
+        }
+        if (stats != null) {
+            stats.add(ParseStats.CALL_SITES, ONE);
+        }
+        return isMethodCallLegal(line, allVariables);
+    }
+
+    /**
+     * the method checks if a method that is being called already exists and it's arguments match the
+     * methods parameters
+     *
+     * @param line             - a method call line
+     * @param methodsVariables - table of the variables visible in the method
+     * @return - true if the line is legal
+     */
+    private boolean isMethodCallLegal(String line, SymbolTable methodsVariables) {
+        Matcher m1 = METHOD_CALL.matcher(line);
+        return m1.matches() && allMethods.isCallLegal(m1.group(ONE), m1.group(TWO), methodsVariables);
+    }
+}
@@ -0,0 +1,279 @@
+package oop.ex6.main;
+
+import oop.ex6.variables.SymbolTable;
+
+/**
+ * the statistics of checking a single file - the time of each phase, the number of lines of each kind,
+ * the sizes of the scopes and a histogram of the time taken by the lines of each kind. it is filled by
+ * a single thread; the parts filled by other threads are added to it at the end
+ */
+public class ParseStats {
+    /**
+     * the names of the kinds of lines, by their index
+     */
+    public static String[] KINDS = {"blank", "comment", "statement", "blockOpen", "blockClose", "return",
+            "illegal"};
+    /**
+     * the index of a blank line
+     */
+    private static int BLANK = 0;
+    /**
+     * the index of a comment line
+     */
+    private static int COMMENT = 1;
+    /**
+     * the index of a declaration, assignment or call line
+     */
+    private static int STATEMENT = 2;
+    /**
+     * the index of a method or block line
+     */
+    private static int BLOCK_OPEN = 3;
+    /**
+     * the index of a closing bracket
+     */
+    private static int BLOCK_CLOSE = 4;
+    /**
+     * the index of a return line
+     */
+    private static int RETURN = 5;
+    /**
+     * the index of a line of no kind
+     */
+    private static int ILLEGAL = 6;
+    /**
+     * the counter of the nanoseconds of reading a file into memory
+     */
+    public static int READ_NANOS = 0;
+    /**
+     * the counter of the nanoseconds of the first pass
+     */
+    public static int FIRST_PASS_NANOS = 1;
+    /**
+     * the counter of the nanoseconds of the second pass
+     */
+    public static int SECOND_PASS_NANOS = 2;
+    /**
+     * the counter of the variables declared, including the parameters of the methods
+     */
+    public static int VARIABLES = 3;
+    /**
+     * the counter of the methods declared
+     */
+    public static int METHODS = 4;
+    /**
+     * the counter of the method calls
+     */
+    public static int CALL_SITES = 5;
+    /**
+     * the counter of the lines of the files, including those after the error which stopped a check
+     */
+    public static int FILE_LINES = 6;
+    /**
+     * the counter of the lines checked of the first kind, followed by the counters of the other kinds
+     */
+    public static int LINES = 7;
+    /**
+     * the number of counters
+     */
+    public static int COUNTERS = LINES + KINDS.length;
+    /**
+     * the maximum of the depth of the scopes
+     */
+    public static int MAX_DEPTH = 0;
+    /**
+     * the maximum of the number of global variables
+     */
+    public static int PEAK_GLOBAL_SCOPE = 1;
+    /**
+     * the maximum of the number of variables in a single scope of a method
+     */
+    public static int PEAK_LOCAL_SCOPE = 2;
+    /**
+     * the number of maxima
+     */
+    public static int MAXIMA = 3;
+    /**
+     * the index of the first pass in the histograms
+     */
+    public static int FIRST_PASS = 0;
+    /**
+     * the index of the second pass in the histograms
+     */
+    public static int SECOND_PASS = 1;
+    /**
+     * the number of passes
+     */
+    public static int PASSES = 2;
+    /**
+     * each power of two of the histograms is split into this number of buckets
+     */
+    private static int SUB_BUCKETS = 4;
+    /**
+     * the bits of the sub buckets
+     */
+    private static int SUB_BUCKET_BITS = 2;
+    /**
+     * the number of buckets of a histogram, enough for any number of nanoseconds
+     */
+    public static int BUCKETS = 64 * SUB_BUCKETS;
+    /**
+     * the counters
+     */
+    private long[] counts = new long[COUNTERS];
+    /**
+     * the maxima
+     */
+    private long[] maxima = new long[MAXIMA];
+    /**
+     * the histogram of the nanoseconds of the lines of each kind in each pass, by the pass and then the
+     * kind. null for a kind with no lines timed
+     */
+    private long[][] latencies = new long[PASSES * KINDS.length][];
+
+    /**
+     * @param kinds - the kinds of a line, as classified by LineClassifier
+     * @return - the index of the kind the line is counted as
+     */
+    public static int kindOf(int kinds) {
+        if (kinds == LineClassifier.ILLEGAL) {
+            return ILLEGAL;
+        } else if (LineClassifier.is(kinds, LineClassifier.BLANK)) {
+            return BLANK;
+        } else if (LineClassifier.is(kinds, LineClassifier.COMMENT)) {
+            return COMMENT;
+        } else if (LineClassifier.is(kinds, LineClassifier.BLOCK_OPEN)) {
+            return BLOCK_OPEN;
+        } else if (LineClassifier.is(kinds, LineClassifier.BLOCK_CLOSE)) {
+            return BLOCK_CLOSE;
+        } else if (LineClassifier.is(kinds, LineClassifier.RETURN)) {
+            return RETURN;
+        }
+        return STATEMENT;
+    }
+
+    /**
+     * @param nanos - a number of nanoseconds
+     * @return - the bucket of the number. numbers under SUB_BUCKETS have a bucket each, and each power of
+     * two above them is split into SUB_BUCKETS buckets
+     */
+    public static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int log = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (log - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (log - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @param bucket - a bucket of a histogram
+     * @return - the largest number of nanoseconds in the bucket
+     */
+    public static long maxOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int log = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (log - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * counts a line checked by the first pass
+     *
+     * @param kinds - the kinds of the line
+     */
+    public void countLine(int kinds) {
+        counts[LINES + kindOf(kinds)]++;
+    }
+
+    /**
+     * adds the time of checking a line to the histogram of its kind
+     *
+     * @param pass  - FIRST_PASS or SECOND_PASS
+     * @param kinds - the kinds of the line
+     * @param nanos - the nanoseconds it took
+     */
+    public void timeLine(int pass, int kinds, long nanos) {
+        int kind = pass * KINDS.length + kindOf(kinds);
+        if (latencies[kind] == null) {
+            latencies[kind] = new long[BUCKETS];
+        }
+        latencies[kind][bucketOf(nanos)]++;
+    }
+
+    /**
+     * @param counter - the index of a counter
+     * @param value   - the number to add to it
+     */
+    public void add(int counter, long value) {
+        counts[counter] += value;
+    }
+
+    /**
+     * @param maximum - the index of a maximum
+     * @param value   - a value, which replaces the maximum if it is larger
+     */
+    public void max(int maximum, long value) {
+        maxima[maximum] = Math.max(maxima[maximum], value);
+    }
+
+    /**
+     * adds the global variables
+     *
+     * @param globals - the table of the global scope, after the first pass
+     */
+    public void addGlobals(SymbolTable globals) {
+        counts[VARIABLES] += globals.getDeclarations();
+        max(PEAK_GLOBAL_SCOPE, globals.getPeakScopeSize());
+    }
+
+    /**
+     * adds the statistics of another part of the same check
+     *
+     * @param other - the statistics to add
+     */
+    public void add(ParseStats other) {
+        for (int i = 0; i < COUNTERS; i++) {
+            counts[i] += other.counts[i];
+        }
+        for (int i = 0; i < MAXIMA; i++) {
+            max(i, other.maxima[i]);
+        }
+        for (int kind = 0; kind < latencies.length; kind++) {
+            for (int bucket = 0; other.latencies[kind] != null && bucket < BUCKETS; bucket++) {
+                if (latencies[kind] == null) {
+                    latencies[kind] = new long[BUCKETS];
+                }
+                latencies[kind][bucket] += other.latencies[kind][bucket];
+            }
+        }
+    }
+
+    /**
+     * @param counter - the index of a counter
+     * @return - the value of the counter
+     */
+    public long getCount(int counter) {
+        return counts[counter];
+    }
+
+    /**
+     * @param maximum - the index of a maximum
+     * @return - the value of the maximum
+     */
+    public long getMax(int maximum) {
+        return maxima[maximum];
+    }
+
+    /**
+     * @param pass - FIRST_PASS or SECOND_PASS
+     * @param kind - the index of a kind of lines
+     * @return - the histogram of the nanoseconds of the lines of the kind in the pass, null if none were
+     * timed
+     */
+    public long[] getLatencies(int pass, int kind) {
+        return latencies[pass * KINDS.length + kind];
+    }
+}
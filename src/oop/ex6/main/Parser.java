@@ -1,83 +1,76 @@
 package oop.ex6.main;
 
-import oop.ex6.ifAndWhileBlocks.Block;
 import oop.ex6.ifAndWhileBlocks.BlockException;
-import oop.ex6.ifAndWhileBlocks.BlockFactory;
 import oop.ex6.methods.Method;
 import oop.ex6.methods.MethodException;
 import oop.ex6.methods.MethodFactory;
+import oop.ex6.methods.MethodRegistry;
 import oop.ex6.variables.*;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  * main class which is responsible for parsing a file
  */
 public class Parser {
     /**
-     * a pattern suit representing whitespaces
+     * true if the lines are classified with the reference patterns instead of the scanner
      */
-    private static Pattern WHITESPACE = Pattern.compile("\\s*");
+    private boolean isReferenceMode;
     /**
-     * a pattern suit representing a comment line
+     * true if the bodies of the methods are checked in parallel
      */
-    private static Pattern COMMENT_LINE = Pattern.compile("//.*");
+    private boolean isParallel = false;
     /**
-     * a pattern suit representing a method call
+     * the errors found so far when all errors are collected, null when the first error stops the check
      */
-    private static Pattern METHOD_CALL = Pattern.compile(MethodFactory.METHOD_NAME +
-            BlockFactory.BRACKETS_CONTENT + ";\\s*");
+    private ArrayList<Diagnostic> diagnostics = null;
     /**
-     * a pattern suit representing a start of block
+     * the programs methods
      */
-    private static Pattern START_OF_BLOCK = Pattern.compile(".*\\{\\s*");
+    private MethodRegistry allMethods = new MethodRegistry();
     /**
-     * a pattern suit representing an end of block
+     * a table of the variables of each open scope, starting with the global variables
      */
-    private static Pattern END_OF_BLOCK = Pattern.compile("\\s*}\\s*");
+    private SymbolTable scopeVariables = new SymbolTable();
     /**
-     * a pattern suit representing a general action line
+     * a counter to follow the scope depth we are in
      */
-    private static Pattern END_OF_ACTION = Pattern.compile(".+;\\s*");
+    private int scopeCounter = 0;
     /**
-     * a pattern suit representing a return line
+     * the kinds and scope depth of every line and the rows of every method, built in the first pass
      */
-    private static Pattern RETURN_LINE = Pattern.compile("\\s*return\\s*;\\s*");
+    private LineIndex lineIndex;
     /**
-     * a list containing the programs global variables
+     * the path of the file checked, null when the lines were given
      */
-    private ArrayList<Variable> globalVariables = new ArrayList<>();
+    private String path = null;
     /**
-     * a list to contain the programs methods
+     * the statistics of the check, null if none are kept
      */
-    private ArrayList<Method> allMethods = new ArrayList<>();
+    private ParseStats stats = null;
     /**
-     * a stack to contain lists of each scopes variables
+     * true if the method whose body the first pass is in was declared legally
      */
-    private Stack<ArrayList<Variable>> scopeVariables = new Stack<>();
+    private boolean isMethodOpen = false;
     /**
-     * a counter to follow the scope depth we are in
+     * files larger than this number of bytes are always checked without keeping their lines in memory
      */
-    private int scopeCounter = 0;
+    private static long STREAMING_THRESHOLD = 64L * 1024 * 1024;
     /**
-     * a hash map which key is an int representing a line of the program, and it's value is another
-     * hash map, where its key is a string representing the lines content, and its value is an int
-     * representing the lines scope depth
+     * gzip files larger than this number of bytes are always checked without keeping their lines in
+     * memory. the text of a gzip file is several times larger than the file
      */
-    private HashMap<Integer, HashMap<String, Integer> > linesMap = new HashMap<>();
+    private static long GZIP_STREAMING_THRESHOLD = STREAMING_THRESHOLD / 8;
     /**
-     * a message when there is no return statement in a method
+     * the suffix of the name of a gzip file, which is decompressed while it is read
      */
-    private static String NO_RETURN_STATEMENT = "no return statement at the end of the method";
-    /**
-     * a message when an illegal line appears in a method
-     */
-    private static String ILLEGAL_METHOD_LINE = "there is an illegal line inside a method";
+    public static String GZIP_SUFFIX = ".gz";
     /**
      * a general message for illegal line
      */
@@ -98,10 +91,67 @@ public class Parser {
      * one
      */
     private static int ONE = 1;
+
     /**
-     * TWO
+     * a parser which classifies the lines with the scanner
      */
-    private static int TWO = 2;
+    public Parser() {
+        this(false);
+    }
+
+    /**
+     * @param isReferenceMode - true to classify the lines with the reference patterns instead of the
+     *                        scanner
+     */
+    public Parser(boolean isReferenceMode) {
+        this.isReferenceMode = isReferenceMode;
+    }
+
+    /**
+     * @param isParallel - true to check the bodies of the methods in parallel, each with its own scopes.
+     *                   the error reported is the same as in a sequential check, the first one by line.
+     *                   files which are streamed are always checked sequentially
+     */
+    public void setParallel(boolean isParallel) {
+        this.isParallel = isParallel;
+    }
+
+    /**
+     * @param isCollectingErrors - true to go on after an error and collect all of the errors of the
+     *                           file, in which case parse returns false instead of throwing. the check
+     *                           goes on from the next line in the global scope, and from the next
+     *                           method inside a method
+     */
+    public void setCollectingErrors(boolean isCollectingErrors) {
+        diagnostics = isCollectingErrors ? new ArrayList<>() : null;
+    }
+
+    /**
+     * @param stats - the statistics to add the check to, null to keep none. keeping them adds the time of
+     *              every line to the check
+     */
+    public void setStats(ParseStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return - the errors found by the last parse, by their rows, at most one for each row. empty if
+     * the errors are not collected
+     */
+    public List<Diagnostic> getDiagnostics() {
+        if (diagnostics == null) {
+            return Collections.emptyList();
+        }
+        List<Diagnostic> sorted = new ArrayList<>(diagnostics);
+        sorted.sort(Comparator.comparingInt(Diagnostic::getRow));
+        List<Diagnostic> result = new ArrayList<>();
+        for (Diagnostic diagnostic : sorted) {
+            if (result.isEmpty() || result.get(result.size() - 1).getRow() != diagnostic.getRow()) {
+                result.add(diagnostic);
+            }
+        }
+        return result;
+    }
 
     /**
      * iterate through a file and check if all lines are legal Sjavac code lines
@@ -112,88 +162,336 @@ public class Parser {
      * @throws GeneralException
      */
     public boolean parse(String path) throws IOException, GeneralException {
-        List<String> fileLines = Files.readAllLines(Paths.get(path));
-        scopeVariables.push(globalVariables);
-        firstParseOfFile(fileLines);
+        return parse(Paths.get(path));
+    }
+
+    /**
+     * iterate through a file and check if all lines are legal Sjavac code lines. the file may be on any
+     * file system, such as an entry of a zip file, and a file whose name ends with GZIP_SUFFIX is
+     * decompressed while it is read
+     *
+     * @param file - the file to check
+     * @return - true if the file is legal, false otherwise
+     * @throws IOException
+     * @throws GeneralException
+     */
+    public boolean parse(Path file) throws IOException, GeneralException {
+        path = file.toString();
+        boolean isGzip = path.endsWith(GZIP_SUFFIX);
+        LineSource source = isGzip ? LineSource.ofGzip(file) : LineSource.of(file);
+        if (Files.size(file) > (isGzip ? GZIP_STREAMING_THRESHOLD : STREAMING_THRESHOLD)) {
+            return parse(source, null);
+        }
+        long start = System.nanoTime();
+        List<String> fileLines = LineSource.readAll(source);
+        if (stats != null) {
+            stats.add(ParseStats.READ_NANOS, System.nanoTime() - start);
+        }
+        return parse(fileLines);
+    }
+
+    /**
+     * iterate through a file and check if all lines are legal Sjavac code lines, without keeping the
+     * lines in memory - the file is read again for the second pass, so the memory used doesn't grow
+     * with the size of the file
+     *
+     * @param path - path of the file to check
+     * @return - true if the file is legal, false otherwise
+     * @throws IOException
+     * @throws GeneralException
+     */
+    public boolean parseStreaming(String path) throws IOException, GeneralException {
+        this.path = path;
+        return parse(LineSource.of(Paths.get(path)), null);
+    }
+
+    /**
+     * check if all the given lines are legal Sjavac code lines
+     *
+     * @param fileLines - the lines of the code to check
+     * @return - true if the code is legal, false otherwise
+     * @throws IOException
+     * @throws GeneralException
+     */
+    public boolean parse(List<String> fileLines) throws IOException, GeneralException {
+        return parse(LineSource.of(fileLines), fileLines);
+    }
+
+    /**
+     * check if all the lines of the given source are legal Sjavac code lines
+     *
+     * @param source    - the lines of the code to check
+     * @param fileLines - the same lines if they are in memory, in which case the kinds and depth of every
+     *                  line are kept between the passes. null if they are found again in the second pass
+     * @return - true if the code is legal, false otherwise
+     * @throws IOException
+     * @throws GeneralException
+     */
+    private boolean parse(LineSource source, List<String> fileLines) throws IOException, GeneralException {
+        ParserEvents.FileParse event = ParserEvents.isRecording() ? new ParserEvents.FileParse() : null;
+        boolean isLegal = false;
+        if (event != null) {
+            event.begin();
+        }
         try {
-            secondCheckGlobalScope(fileLines);
-        } catch (BlockException | VariableException | GeneralException e) {
-            throw new GeneralException(e.getMessage());
+            parseGlobalScope(source, fileLines);
+            isLegal = parseMethods(source, fileLines);
+            return isLegal;
+        } finally {
+            if (event != null && ParserEvents.shouldCommit(event)) {
+                event.path = path;
+                event.lines = lineIndex == null ? ZERO : lineIndex.size();
+                event.methods = allMethods.size();
+                event.isStreamed = fileLines == null;
+                event.isLegal = isLegal;
+                event.commit();
+            }
         }
-        return true;
     }
 
     /**
-     * iterate through the file, collect the local variables and methods and look for illegal
-     * actions in the global
-     * scope
+     * the second pass, which checks the bodies of the methods found by the first one
      *
-     * @param fileLines - list of the files lines
+     * @param source    - the lines of the code to check
+     * @param fileLines - the same lines if they are in memory, null otherwise
+     * @return - true if the code is legal, false otherwise
+     * @throws IOException
      * @throws GeneralException
      */
-    private void firstParseOfFile(List<String> fileLines) throws GeneralException {
-        for (int i = 0; i < fileLines.size(); i++) {
-            HashMap<String, Integer> currentMap = new HashMap<>();
-            int rowNum = i + 1;
-            String line = fileLines.get(i);
-            Matcher m1 = START_OF_BLOCK.matcher(line);
-            Matcher m2 = END_OF_BLOCK.matcher(line);
-            Matcher m3 = END_OF_ACTION.matcher(line);
-            Matcher m4 = COMMENT_LINE.matcher(line);
-            Matcher m5 = WHITESPACE.matcher(line);
-            Matcher m6 = RETURN_LINE.matcher(line);
-            if (!(m1.matches() || m2.matches() || m3.matches() || m4.matches() || m5.matches()
-                    || m6.matches())) {
-                throw new GeneralException(GENERAL_ILLEGAL_LINE + rowNum);
+    private boolean parseMethods(LineSource source, List<String> fileLines) throws IOException,
+            GeneralException {
+        ParserEvents.SecondPass event = ParserEvents.isRecording() ? new ParserEvents.SecondPass() : null;
+        long start = System.nanoTime();
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            if (diagnostics != null) {
+                collectMethodErrors(source);
+                return diagnostics.isEmpty();
             }
-            if (m6.matches() && scopeCounter == ZERO) {
-                throw new GeneralException(ILLEGAL_RETURN + rowNum);
+            if (isParallel && fileLines != null) {
+                checkMethodsInParallel(fileLines);
+                return true;
             }
-            if (m3.matches() && scopeCounter == ZERO) { // should be only global scope declaration /
-                // assignment
-                isDeclarationLines(line, rowNum);
-                currentMap.put(line, scopeCounter);
-                linesMap.put(rowNum, currentMap);
-                continue;
+            try (LineSource.Reader lines = source.open()) {
+                secondCheckGlobalScope(lines);
+            } catch (BlockException | VariableException e) {
+                throw new GeneralException(e.getMessage());
             }
-            if (m4.matches() || m5.matches()) {
-                currentMap.put(line, scopeCounter);
-                linesMap.put(rowNum, currentMap);
-                continue;
+            return true;
+        } finally {
+            if (stats != null) {
+                stats.add(ParseStats.SECOND_PASS_NANOS, System.nanoTime() - start);
+            }
+            if (event != null && ParserEvents.shouldCommit(event)) {
+                event.methods = allMethods.size();
+                event.isParallel = isParallel && fileLines != null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * runs only the first pass over the given lines, which checks the global scope and collects the
+     * global variables and the methods. the bodies of the methods can be checked after it with
+     * checkMethod
+     *
+     * @param fileLines - the lines of the code to check
+     * @throws IOException
+     * @throws GeneralException
+     */
+    void parseGlobalScope(List<String> fileLines) throws IOException, GeneralException {
+        parseGlobalScope(LineSource.of(fileLines), fileLines);
+    }
+
+    /**
+     * runs the first pass over the lines of the given source and freezes the global scope
+     *
+     * @param source    - the lines of the code to check
+     * @param fileLines - the same lines if they are in memory, null otherwise
+     * @throws IOException
+     * @throws GeneralException
+     */
+    private void parseGlobalScope(LineSource source, List<String> fileLines) throws IOException,
+            GeneralException {
+        lineIndex = new LineIndex(fileLines != null);
+        ParserEvents.FirstPass event = ParserEvents.isRecording() ? new ParserEvents.FirstPass() : null;
+        long start = System.nanoTime();
+        if (event != null) {
+            event.begin();
+        }
+        try (LineSource.Reader lines = source.open()) {
+            firstParseOfFile(lines, event != null && event.isEnabled() ? event : null);
+        } finally {
+            if (stats != null) {
+                stats.add(ParseStats.FIRST_PASS_NANOS, System.nanoTime() - start);
+                stats.add(ParseStats.METHODS, allMethods.size());
+                stats.addGlobals(scopeVariables);
+            }
+            if (event != null && ParserEvents.shouldCommit(event)) {
+                event.commit();
             }
-            if (m6.matches()) {
-                if (scopeCounter > ONE) {
-                    currentMap.put(line, scopeCounter);
-                    linesMap.put(rowNum, currentMap);
+        }
+        scopeVariables.freezeGlobals();
+    }
+
+    /**
+     * iterate through the file, collect the local variables and methods and look for illegal
+     * actions in the global
+     * scope
+     *
+     * @param lines - reader of the files lines
+     * @param event - the event which counts the lines of each kind, null if it isn't recorded
+     * @throws IOException
+     * @throws GeneralException
+     */
+    private void firstParseOfFile(LineSource.Reader lines, ParserEvents.FirstPass event) throws IOException,
+            GeneralException {
+        int rowNum = ZERO;
+        isMethodOpen = false;
+        try {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                rowNum++;
+                long start = stats == null ? ZERO : System.nanoTime();
+                int kinds = LineClassifier.classify(line, isReferenceMode);
+                if (event != null) {
+                    event.count(kinds);
+                }
+                if (stats != null) {
+                    stats.countLine(kinds);
                 }
-                if (scopeCounter == ONE) { // the return statement at the end of a method
-                    currentMap.put(line, scopeCounter);
-                    linesMap.put(rowNum, currentMap);
+                firstParseOfLine(line, kinds, rowNum);
+                if (stats != null) {
+                    stats.timeLine(ParseStats.FIRST_PASS, kinds, System.nanoTime() - start);
+                    stats.max(ParseStats.MAX_DEPTH, scopeCounter);
                 }
-                continue;
             }
-            if (m1.matches()) {
-                if (scopeCounter == ZERO) { // should be only a line of method creation
+        } finally {
+            if (stats != null) { // the lines after an error are read only to be counted
+                stats.add(ParseStats.FILE_LINES, rowNum + countRest(lines));
+            }
+        }
+        if (scopeCounter != ZERO) {
+            report(rowNum, UNBALANCED_PARENTHESES);
+        }
+    }
+
+    /**
+     * @param lines - reader of the lines of a file
+     * @return - the number of lines left in the reader, up to the first one which can't be read
+     */
+    private static int countRest(LineSource.Reader lines) {
+        int count = ZERO;
+        try {
+            while (lines.readLine() != null) {
+                count++;
+            }
+        } catch (IOException e) { // the error is reported by the pass
+        }
+        return count;
+    }
+
+    /**
+     * checks a single line of the first pass, indexes it and follows the scope depth
+     *
+     * @param line   - the line
+     * @param kinds  - the kinds of the line
+     * @param rowNum - number of the row
+     * @throws GeneralException
+     */
+    private void firstParseOfLine(String line, int kinds, int rowNum) throws GeneralException {
+        if (kinds == LineClassifier.ILLEGAL) {
+            report(rowNum, GENERAL_ILLEGAL_LINE + rowNum);
+            lineIndex.addLine(kinds, scopeCounter);
+            return;
+        }
+        if (LineClassifier.is(kinds, LineClassifier.RETURN) && scopeCounter == ZERO) {
+            report(rowNum, ILLEGAL_RETURN + rowNum);
+            lineIndex.addLine(kinds, scopeCounter);
+            return;
+        }
+        lineIndex.addLine(kinds, scopeCounter);
+        if (LineClassifier.is(kinds, LineClassifier.STATEMENT) && scopeCounter == ZERO) {
+            // should be only global scope declaration / assignment
+            try {
+                isDeclarationLines(line, rowNum);
+            } catch (GeneralException e) {
+                report(rowNum, e.getMessage());
+            }
+            return;
+        }
+        if (LineClassifier.is(kinds,
+                LineClassifier.COMMENT | LineClassifier.BLANK | LineClassifier.RETURN)) {
+            return;
+        }
+        if (LineClassifier.is(kinds, LineClassifier.BLOCK_OPEN)) {
+            if (scopeCounter == ZERO) { // should be only a line of method creation
+                try {
                     isMethodCreationLines(line, rowNum);
+                    lineIndex.startMethod(rowNum);
+                    isMethodOpen = true;
+                } catch (GeneralException e) { // the body of the method is not checked
+                    report(rowNum, e.getMessage());
                 }
-                currentMap.put(line, scopeCounter);
-                linesMap.put(rowNum, currentMap);
-                scopeCounter++;
-                continue;
-            } else if (scopeCounter < ONE && m2.matches() || scopeCounter < ZERO) {
-                throw new GeneralException(UNBALANCED_PARENTHESES);
             }
-            if (m2.matches()) {
-                currentMap.put(line, scopeCounter);
-                linesMap.put(rowNum, currentMap);
-                scopeCounter--;
-                continue;
+            scopeCounter++;
+            return;
+        } else if (scopeCounter < ONE && LineClassifier.is(kinds, LineClassifier.BLOCK_CLOSE) ||
+                scopeCounter < ZERO) {
+            report(rowNum, UNBALANCED_PARENTHESES);
+            return;
+        }
+        if (LineClassifier.is(kinds, LineClassifier.BLOCK_CLOSE)) {
+            scopeCounter--;
+            if (scopeCounter == ZERO && isMethodOpen) { // the closing bracket of a method
+                lineIndex.endMethod(rowNum);
+                isMethodOpen = false;
             }
-            currentMap.put(line, scopeCounter);
-            linesMap.put(rowNum, currentMap);
         }
-        if (scopeCounter != ZERO) {
-            throw new GeneralException(UNBALANCED_PARENTHESES);
+    }
+
+    /**
+     * reports an error. the error stops the check, unless all errors are collected
+     *
+     * @param row     - the row of the error
+     * @param message - the message of the error
+     * @throws GeneralException
+     */
+    private void report(int row, String message) throws GeneralException {
+        if (diagnostics == null) {
+            throw new GeneralException(message);
+        }
+        diagnostics.add(new Diagnostic(row, message));
+    }
+
+    /**
+     * checks the bodies of all methods, each with a new checker, and collects the first error of each
+     * method. a method which was never closed is not checked
+     *
+     * @param source - the lines of the code
+     * @throws IOException
+     */
+    private void collectMethodErrors(LineSource source) throws IOException {
+        try (LineSource.Reader lines = source.open()) {
+            int rowsRead = ZERO;
+            for (int i = 0; i < getAllMethods().size(); i++) {
+                if (lineIndex.getMethodEnd(i) < lineIndex.getMethodStart(i)) {
+                    continue;
+                }
+                for (; rowsRead < lineIndex.getMethodStart(i); rowsRead++) { // skip to the declaration line
+                    lines.readLine();
+                }
+                MethodChecker checker = new MethodChecker(lineIndex, allMethods, scopeVariables,
+                        isReferenceMode);
+                checker.setStats(stats);
+                try {
+                    checker.check(i, lines);
+                } catch (GeneralException | BlockException | VariableException e) {
+                    diagnostics.add(new Diagnostic(checker.getRow(), e.getMessage()));
+                }
+                rowsRead = checker.getRow();
+            }
         }
     }
 
@@ -207,14 +505,7 @@ public class Parser {
      */
     private boolean isDeclarationLines(String line, int rowNum) throws GeneralException {
         try {
-            ArrayList<Variable> newVars = VariableFactory.parseLine(line, globalVariables, false);
-            for (int i = 0; i < newVars.size(); i++) {
-                if (VariableValidation.isContain(newVars.get(i).getName(), globalVariables) != null) {
-                    globalVariables.set(i, newVars.get(i));
-                } else {
-                    globalVariables.add(newVars.get(i));
-                }
-            }
+            VariableFactory.parseLine(line, scopeVariables, false);
             return true;
         } catch (VariableException e1) {
             throw new GeneralException(GENERAL_ILLEGAL_LINE + rowNum + "\n" + e1.getMessage());
@@ -231,7 +522,7 @@ public class Parser {
      */
     private boolean isMethodCreationLines(String line, int rowNum) throws GeneralException {
         try {
-            Method method = MethodFactory.createMethod(line, rowNum, allMethods, new ArrayList<>());
+            Method method = MethodFactory.createMethod(line, rowNum, allMethods);
             getAllMethods().add(method);
             return true;
         } catch (MethodException | VariableException e) {
@@ -239,196 +530,98 @@ public class Parser {
         }
     }
 
-    /**
-     * the method checks if a method that is being called already exists and it's arguments match the
-     * methods parameters
-     *
-     * @param line             - a method call line
-     * @param methodsVariables - list of the methods variables
-     * @return - true if the line is legal
-     */
-    private boolean isMethodCallLegal(String line, ArrayList<Variable> methodsVariables) {
-        Matcher m1 = METHOD_CALL.matcher(line);
-        if (m1.matches()) {
-            String name = m1.group(ONE);
-            Method existedMethod = MethodFactory.isContain(name, allMethods);
-            if (existedMethod != null) { // a method with this name already exists
-                Matcher m = WHITESPACE.matcher(m1.group(TWO));
-                String[] parameters = m1.group(TWO).split(",");
-                List<Variable> methodParams = existedMethod.getParameters();
-                if (methodParams.size() == ZERO && parameters.length == ONE && m.matches()) {
-                    return true; // method has no parameters
-                }
-                if (methodParams.size() == parameters.length) { // checks if num of parameters is correct
-                    boolean isOk = false;
-                    for (int i = 0; i < parameters.length; i++) { // checks if the parameters are compatible
-                        Variable param = methodParams.get(i);
-                        isOk = VariableFactory.createVariable(param.getName(), parameters[i],
-                                param.getType(), param.isFinal(), methodsVariables, new ArrayList<>());
-                    }
-                    return isOk;
-                }
-            }
-        }
-        return false;
-    }
-
     /**
      * iterates through the file again, goes inside methods and if\while blocks and checks if all
      * lines are legal
      *
-     * @param fileLines - list of the file lines
+     * @param lines - reader of the file lines, at the first line
      * @returntrue if code is legal
      */
-    private boolean secondCheckGlobalScope(List<String> fileLines) throws VariableException,
+    private boolean secondCheckGlobalScope(LineSource.Reader lines) throws IOException, VariableException,
             GeneralException, BlockException {
+        MethodChecker checker = new MethodChecker(lineIndex, allMethods, scopeVariables, isReferenceMode);
+        checker.setStats(stats);
+        int rowsRead = ZERO;
         for (int i = 0; i < getAllMethods().size(); i++) {
-            Method method = getAllMethods().get(i);
-            scopeVariables.push(method.getMethodVariables());
-            int startRow = method.getStartRow();
-            scopeCounter++;
-            checkLocalScope(fileLines, scopeVariables, startRow);
+            for (; rowsRead < lineIndex.getMethodStart(i); rowsRead++) { // skip to the declaration line
+                lines.readLine();
+            }
+            rowsRead = lineIndex.getMethodEnd(i);
+            checker.check(i, lines);
         }
         return true;
     }
 
     /**
-     * goes inside a local scope and checks if its lines are legal
+     * checks the bodies of all methods in parallel, each with its own checker, and reports the error of
+     * the first method that has one. when statistics are kept, each thread keeps its own and they are
+     * added up at the end
      *
-     * @param fileLines    - list of the files lines
-     * @param allVariables - all the variables of the program
-     * @param startRow     - beginning of the scope
-     * @return - true if legal, false otherwise
+     * @param fileLines - list of the file lines
      * @throws GeneralException
-     * @throws BlockException
-     * @throws VariableException
-     * @throws MethodException
-     */
-    private boolean checkLocalScope(List<String> fileLines, Stack<ArrayList<Variable>> allVariables,
-                                    int startRow) throws GeneralException, BlockException,
-            VariableException {
-        Boolean[] isLastReturn = {false};
-        for (int i = startRow; i < linesMap.size(); i++) {
-            String line = fileLines.get(i);
-            if (linesMap.get(i + ONE).get(line) == ZERO) {
-                break;
-            }
-            if (line == null) {
-                continue;
-            }
-            boolean res = localScopeHelper(line, i + ONE, allVariables, isLastReturn);
-            Matcher blockStartMatcher = START_OF_BLOCK.matcher(line);
-            if (blockStartMatcher.matches()) {
-                Block newBlock = BlockFactory.createBlock(line, new ArrayList<>(), i, allVariables);
-                allVariables.push(newBlock.getBlockVariables());
-                scopeCounter++;
-                res = true;
-            }
-            if (!res) {
-                throw new GeneralException(ILLEGAL_METHOD_LINE);
+     */
+    private void checkMethodsInParallel(List<String> fileLines) throws GeneralException {
+        Exception[] errors = new Exception[getAllMethods().size()];
+        if (stats == null) {
+            IntStream.range(ZERO, errors.length).parallel()
+                    .forEach(i -> errors[i] = checkMethod(i, fileLines));
+        } else {
+            stats.add(IntStream.range(ZERO, errors.length).parallel().collect(ParseStats::new,
+                    (threadStats, i) -> errors[i] = checkMethod(i, fileLines, threadStats), ParseStats::add));
+        }
+        for (Exception error : errors) {
+            if (error != null) {
+                throw new GeneralException(error.getMessage());
             }
         }
-        return true;
     }
 
     /**
-     * a helper for the check local scope method. receives a line and checks if its legal or not
+     * checks the body of a single method with a new checker
      *
-     * @param line         - line to check
-     * @param row          - number of the line
-     * @param allVariables - stack with all the program variables
-     * @param isLastReturn - did we pass the last return of the method we are in
-     * @return - true if it is a legal line
-     */
-    private boolean localScopeHelper(String line, int row, Stack<ArrayList<Variable>> allVariables,
-                                     Boolean[] isLastReturn) throws
-            GeneralException, VariableException {
-        Matcher returnMatcher = RETURN_LINE.matcher(line);
-        Matcher commentMatcher = COMMENT_LINE.matcher(line);
-        Matcher spaceMatcher = WHITESPACE.matcher(line);
-        Matcher actionMatcher = END_OF_ACTION.matcher(line);
-        Matcher blockStartMatcher = START_OF_BLOCK.matcher(line);
-        Matcher blockEndMatcher = END_OF_BLOCK.matcher(line);
-        int scopeDepth = (Integer) linesMap.get(row).get(line);
-        if (scopeDepth == scopeCounter - ONE) { // we reached the end of the scope
-            return true;
-        }
-        if (actionMatcher.matches() || blockStartMatcher.matches()) {
-            isLastReturn[ZERO] = false;
-        }
-        if (blockEndMatcher.matches()) {
-            if (!isLastReturn[ZERO] && scopeDepth == ONE) {
-                throw new GeneralException(NO_RETURN_STATEMENT);
-            }
-            scopeCounter--;
-            if (allVariables.size() > ONE) {
-                allVariables.pop();
-            }
-            return true;
-        }
-        if (returnMatcher.matches() && scopeDepth == ONE) { // the last return of the methods scope,
-            // next line should be only white-spaces or closing parentheses
-            isLastReturn[ZERO] = true;
-            return true;
-        } else if (commentMatcher.matches() || spaceMatcher.matches() || returnMatcher.matches()) {
-            return true;
-        } else if (actionMatcher.matches()) {
-            return innerAction(line, allVariables);
-        }
-        return false;
+     * @param method    - index of the method, in the order of the file
+     * @param fileLines - list of the file lines
+     * @return - the error found in the method, null if it is legal
+     */
+    Exception checkMethod(int method, List<String> fileLines) {
+        return checkMethod(method, fileLines, null);
     }
 
     /**
-     * checks if an action inside a method is legal or not
+     * checks the body of a single method with a new checker
      *
-     * @param line         - line of the action
-     * @param allVariables - all of the programs variables
-     * @return - true if legal
-     */
-    private boolean innerAction(String line, Stack<ArrayList<Variable>> allVariables)
-            throws VariableException {
-        ArrayList<Variable> res = new ArrayList<>();
-        Matcher m1 = VariableFactory.DECLARATION_LINE_PATTERN.matcher(line);
-        Matcher m2 = VariableFactory.ASSIGNMENT_PATTERN.matcher(line);
-        Matcher m3 = METHOD_CALL.matcher(line);
-        for (int j = allVariables.size() - 1; j >= 0; j--) {
-            if (m1.matches()) {
-                boolean isDeclaration = VariableFactory.parseDeclaration
-                        (line, allVariables.get(j), res, false);
-                if (isDeclaration) {
-                    return true;
-                }
-            }
-            if (m2.matches()) {
-                boolean isAssignment = VariableFactory.parseAssignment(line, allVariables.get(j), res);
-                if (isAssignment) {
-                    Variable toReplace =
-                            VariableValidation.isContain(res.get(ZERO).getName(), allVariables.get(j));
-                    if (j != ZERO) {
-                        int indexOfVar = allVariables.get(j).indexOf(toReplace);
-                        allVariables.get(j).set(indexOfVar, res.get(ZERO));
-                    } else {
-                        allVariables.get(ZERO).add(res.get(ZERO));
-                    }
-                    return true;
-                }
-            }
-            if (m3.matches()) {
-                if (isMethodCallLegal(line, allVariables.get(j))) {
-                    return true;
-                }
-            }
+     * @param method      - index of the method, in the order of the file
+     * @param fileLines   - list of the file lines
+     * @param threadStats - the statistics to add the check to, null to keep none
+     * @return - the error found in the method, null if it is legal
+     */
+    private Exception checkMethod(int method, List<String> fileLines, ParseStats threadStats) {
+        MethodChecker checker = new MethodChecker(lineIndex, allMethods, scopeVariables, isReferenceMode);
+        checker.setStats(threadStats);
+        int start = lineIndex.getMethodStart(method);
+        try (LineSource.Reader lines = LineSource.of(fileLines.subList(start, lineIndex.getMethodEnd(method)))
+                .open()) {
+            checker.check(method, lines);
+            return null;
+        } catch (IOException | GeneralException | BlockException | VariableException e) {
+            return e;
         }
-        return false;
     }
 
     /**
      * @return all of the programs methods
      */
-    private ArrayList<Method> getAllMethods() {
+    MethodRegistry getAllMethods() {
         return allMethods;
     }
 
+    /**
+     * @return - the kinds and scope depth of every line and the rows of every method
+     */
+    LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
 }
 
 
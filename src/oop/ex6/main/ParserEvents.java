@@ -0,0 +1,229 @@
+package oop.ex6.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * the flight recorder events of the parser. an event costs nothing more than a check of a flag when it
+ * isn't recorded. the events of blocks are disabled by default and sampled when they are enabled, as
+ * there are many of them in every file. no event is created before the recorder starts, since creating
+ * the first one registers all of the event classes, which takes longer than checking a small file
+ */
+public class ParserEvents {
+    /**
+     * one of this number of blocks is recorded
+     */
+    public static int BLOCK_SAMPLE = 64;
+
+    /**
+     * @return - true if the flight recorder has started, in which case events may be created
+     */
+    public static boolean isRecording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * ends an event
+     *
+     * @param event - an event that began
+     * @return - true if the event should be committed
+     */
+    public static boolean shouldCommit(Event event) {
+        event.end();
+        return event.shouldCommit();
+    }
+
+    /**
+     * the check of a whole file
+     */
+    @Name("oop.ex6.FileParse")
+    @Label("File Parse")
+    @Category("s-java")
+    @StackTrace(false)
+    public static class FileParse extends Event {
+        /**
+         * the path of the file, null when the lines were given
+         */
+        @Label("Path")
+        public String path;
+        /**
+         * the number of lines of the file
+         */
+        @Label("Lines")
+        public int lines;
+        /**
+         * the number of methods of the file
+         */
+        @Label("Methods")
+        public int methods;
+        /**
+         * true if the file was read again for the second pass
+         */
+        @Label("Streamed")
+        public boolean isStreamed;
+        /**
+         * true if the file is legal
+         */
+        @Label("Legal")
+        public boolean isLegal;
+    }
+
+    /**
+     * the first pass, over the global scope, with the number of lines of each kind
+     */
+    @Name("oop.ex6.FirstPass")
+    @Label("First Pass")
+    @Category("s-java")
+    @StackTrace(false)
+    public static class FirstPass extends Event {
+        /**
+         * the number of lines read
+         */
+        @Label("Lines")
+        public int lines;
+        /**
+         * the number of empty lines
+         */
+        @Label("Blank Lines")
+        public int blankLines;
+        /**
+         * the number of comment lines
+         */
+        @Label("Comment Lines")
+        public int commentLines;
+        /**
+         * the number of declaration, assignment and call lines
+         */
+        @Label("Statement Lines")
+        public int statementLines;
+        /**
+         * the number of method and block lines
+         */
+        @Label("Block Open Lines")
+        public int blockOpenLines;
+        /**
+         * the number of closing brackets
+         */
+        @Label("Block Close Lines")
+        public int blockCloseLines;
+        /**
+         * the number of return statements
+         */
+        @Label("Return Lines")
+        public int returnLines;
+        /**
+         * the number of lines of no kind
+         */
+        @Label("Illegal Lines")
+        public int illegalLines;
+
+        /**
+         * counts a line
+         *
+         * @param kinds - the kinds of the line
+         */
+        public void count(int kinds) {
+            lines++;
+            if (kinds == LineClassifier.ILLEGAL) {
+                illegalLines++;
+            } else if (LineClassifier.is(kinds, LineClassifier.BLANK)) {
+                blankLines++;
+            } else if (LineClassifier.is(kinds, LineClassifier.COMMENT)) {
+                commentLines++;
+            } else if (LineClassifier.is(kinds, LineClassifier.BLOCK_OPEN)) {
+                blockOpenLines++;
+            } else if (LineClassifier.is(kinds, LineClassifier.BLOCK_CLOSE)) {
+                blockCloseLines++;
+            } else if (LineClassifier.is(kinds, LineClassifier.RETURN)) {
+                returnLines++;
+            } else {
+                statementLines++;
+            }
+        }
+    }
+
+    /**
+     * the second pass, over the bodies of the methods
+     */
+    @Name("oop.ex6.SecondPass")
+    @Label("Second Pass")
+    @Category("s-java")
+    @StackTrace(false)
+    public static class SecondPass extends Event {
+        /**
+         * the number of methods checked
+         */
+        @Label("Methods")
+        public int methods;
+        /**
+         * true if the methods were checked in parallel
+         */
+        @Label("Parallel")
+        public boolean isParallel;
+    }
+
+    /**
+     * the check of the body of a single method, recorded only for the slow ones by default
+     */
+    @Name("oop.ex6.MethodCheck")
+    @Label("Method Check")
+    @Category("s-java")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static class MethodCheck extends Event {
+        /**
+         * the name of the method
+         */
+        @Label("Method")
+        public String method;
+        /**
+         * the number of lines of the body
+         */
+        @Label("Lines")
+        public int lines;
+        /**
+         * the number of lookups of variables in the body
+         */
+        @Label("Lookups")
+        public long lookups;
+        /**
+         * the number of scopes opened in the body
+         */
+        @Label("Scope Pushes")
+        public long pushes;
+    }
+
+    /**
+     * the creation of a sampled if or while block
+     */
+    @Name("oop.ex6.BlockCreation")
+    @Label("Block Creation")
+    @Description("one of every 64 blocks checked by a method checker")
+    @Category("s-java")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class BlockCreation extends Event {
+        /**
+         * the block line
+         */
+        @Label("Line")
+        public String line;
+        /**
+         * the row of the block line
+         */
+        @Label("Row")
+        public int row;
+        /**
+         * the depth of the block in the method
+         */
+        @Label("Depth")
+        public int depth;
+    }
+}
@@ -0,0 +1,232 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the results of the reference solution, by a hash of the content of each file. the output of the
+ * reference for a file never changes, so it is run only on files it never saw, and it is loaded only when
+ * there is such a file. the cache can be seeded with the codes the tests info file records for the school
+ * tests. the keys hash the jar too, so the results of another jar are never used. unlike a ResultCache,
+ * all the entries are kept in a single file, read once when the cache is opened and written again when it
+ * is closed, since answering a file from the cache should cost less than running the reference on it
+ */
+public class ReferenceCache implements AutoCloseable {
+    /**
+     * the version in the hash of the jar, which keeps the keys apart from those of our results
+     */
+    private static String REFERENCE_VERSION = "reference";
+    /**
+     * separates the name of a test from its code in the tests info file
+     */
+    private static String INFO_SEPARATOR = "\\s+";
+    /**
+     * separates the key, the code and the message of an entry in the file of the cache
+     */
+    private static char SEPARATOR = ' ';
+    /**
+     * the suffix of the temporary file the cache is written to
+     */
+    private static String TEMP_SUFFIX = ".tmp";
+    /**
+     * the jar of the reference
+     */
+    private Path jar;
+    /**
+     * the hash of the jar, which is the version in the hash of each file
+     */
+    private String jarHash;
+    /**
+     * the file of the cache
+     */
+    private Path file;
+    /**
+     * the results of the reference, by their keys
+     */
+    private ConcurrentHashMap<String, CheckResult> entries = new ConcurrentHashMap<>();
+    /**
+     * true if entries were added since the file was read
+     */
+    private volatile boolean isChanged;
+    /**
+     * the reference, null until the first file which has no entry
+     */
+    private ReferenceSolution reference;
+
+    /**
+     * opens the cache, reading its entries
+     *
+     * @param jar  - the jar of the reference
+     * @param file - the file of the cache, created when it is closed if it doesn't exist
+     * @throws IOException - if the jar or the file could not be read
+     */
+    public ReferenceCache(Path jar, Path file) throws IOException {
+        this.jar = jar;
+        this.jarHash = ResultCache.hash(jar, REFERENCE_VERSION);
+        this.file = file;
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            lines = new ArrayList<>();
+        }
+        for (String line : lines) {
+            int codeStart = line.indexOf(SEPARATOR);
+            int messageStart = line.indexOf(SEPARATOR, codeStart + 1);
+            try {
+                String key = line.substring(0, codeStart);
+                if (messageStart < 0) {
+                    entries.put(key, new CheckResult(Integer.parseInt(line.substring(codeStart + 1)), null));
+                } else {
+                    int code = Integer.parseInt(line.substring(codeStart + 1, messageStart));
+                    entries.put(key, new CheckResult(code, unescape(line.substring(messageStart + 1))));
+                }
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) { // a broken entry is a miss
+            }
+        }
+    }
+
+    /**
+     * adds the codes recorded in a tests info file, whose lines are a test name, its code and a
+     * description. tests which already have an entry, and lines which are not of a test, are skipped
+     *
+     * @param info  - the tests info file
+     * @param tests - the directory of the tests named in the file
+     * @return - the number of entries added
+     * @throws IOException
+     */
+    public int seed(Path info, Path tests) throws IOException {
+        int seeded = 0;
+        for (String line : Files.readAllLines(info, StandardCharsets.UTF_8)) {
+            String[] parts = line.trim().split(INFO_SEPARATOR);
+            if (parts.length < 2 || !Files.isRegularFile(tests.resolve(parts[0]))) {
+                continue;
+            }
+            int code;
+            try {
+                code = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (entries.putIfAbsent(ResultCache.hash(tests.resolve(parts[0]), jarHash),
+                    new CheckResult(code, null)) == null) {
+                isChanged = true;
+                seeded++;
+            }
+        }
+        return seeded;
+    }
+
+    /**
+     * answers a file from the cache, or runs the reference on it and keeps its result if it has no entry.
+     * any number of threads may check files at once
+     *
+     * @param source - the file to check, on the default file system
+     * @return - the result of the reference on the file
+     * @throws IOException - if the reference could not be loaded
+     */
+    public CheckResult check(Path source) throws IOException {
+        String key;
+        try {
+            key = ResultCache.hash(source, jarHash);
+        } catch (IOException e) { // the reference reports the error of reading the file
+            return getReference().check(source);
+        }
+        CheckResult result = entries.get(key);
+        if (result == null) {
+            result = getReference().check(source);
+            if (result.getCode() != ReferenceSolution.NO_CODE) {
+                entries.put(key, result);
+                isChanged = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return - the reference, loaded on the first call
+     * @throws IOException
+     */
+    private synchronized ReferenceSolution getReference() throws IOException {
+        if (reference == null) {
+            reference = new ReferenceSolution(jar);
+        }
+        return reference;
+    }
+
+    /**
+     * writes the entries to the file of the cache if any were added, sorted by their keys, and closes the
+     * reference if it was loaded
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (reference != null) {
+            reference.close();
+        }
+        if (!isChanged) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, CheckResult> entry : new TreeMap<>(entries).entrySet()) {
+            text.append(entry.getKey()).append(SEPARATOR).append(entry.getValue().getCode());
+            if (entry.getValue().getMessage() != null) {
+                text.append(SEPARATOR).append(escape(entry.getValue().getMessage()));
+            }
+            text.append('\n');
+        }
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(),
+                TEMP_SUFFIX);
+        try {
+            Files.write(temp, text.toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        isChanged = false;
+    }
+
+    /**
+     * @param message - a message
+     * @return - the message in a single line, with its backslashes and line breaks escaped
+     */
+    private static String escape(String message) {
+        return message.replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    /**
+     * @param escaped - a message escaped by escape
+     * @return - the message
+     */
+    private static String unescape(String escaped) {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c == '\\' && i + 1 < escaped.length()) {
+                char next = escaped.charAt(++i);
+                message.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                message.append(c);
+            }
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package oop.ex6.main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.jar.JarFile;
+
+/**
+ * the reference solution, loaded once from its jar and run on many files at once in this jvm. the jar has
+ * a class loader of its own, whose parent is the platform class loader, so its classes don't clash with
+ * ours. the reference prints its result to System.out, so System.out and System.err are replaced by
+ * streams which write to a buffer of the calling thread while it runs the reference, and to the original
+ * streams otherwise. they are replaced again if something else replaced them since, as a tester which
+ * captures the output of this program does
+ */
+public class ReferenceSolution implements AutoCloseable {
+    /**
+     * the code of a result which the reference printed no code for
+     */
+    public static int NO_CODE = -1;
+    /**
+     * the standard output of this jvm, routed by thread
+     */
+    private static volatile ThreadStream out;
+    /**
+     * the standard error of this jvm, routed by thread
+     */
+    private static volatile ThreadStream err;
+    /**
+     * the print stream of out, which is System.out as long as nothing else replaced it
+     */
+    private static volatile PrintStream routedOut;
+    /**
+     * the print stream of err, which is System.err as long as nothing else replaced it
+     */
+    private static volatile PrintStream routedErr;
+    /**
+     * the loader of the classes of the jar
+     */
+    private URLClassLoader loader;
+    /**
+     * the main method of the reference
+     */
+    private Method main;
+
+    /**
+     * loads the reference from its jar
+     *
+     * @param jar - the jar of the reference, whose manifest names its main class
+     * @throws IOException
+     */
+    public ReferenceSolution(Path jar) throws IOException {
+        String mainClass;
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            mainClass = jarFile.getManifest().getMainAttributes().getValue("Main-Class");
+        }
+        loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+        try {
+            main = loader.loadClass(mainClass).getMethod("main", String[].class);
+        } catch (ReflectiveOperationException | NullPointerException e) {
+            loader.close();
+            throw new IOException("no main class in " + jar);
+        }
+        routeStandardStreams();
+    }
+
+    /**
+     * replaces System.out and System.err by streams routed by thread, unless they are routed already
+     */
+    private static synchronized void routeStandardStreams() {
+        if (System.out != routedOut) {
+            out = new ThreadStream(System.out);
+            routedOut = new PrintStream(out, true);
+            System.setOut(routedOut);
+        }
+        if (System.err != routedErr) {
+            err = new ThreadStream(System.err);
+            routedErr = new PrintStream(err, true);
+            System.setErr(routedErr);
+        }
+    }
+
+    /**
+     * runs the reference on a file. any number of threads may run it at once
+     *
+     * @param file - the file to check, on the default file system
+     * @return - the code the reference printed, NO_CODE if it printed none, and what it printed to
+     * System.err as the message, null if it printed nothing there
+     */
+    public CheckResult check(Path file) {
+        if (System.out != routedOut || System.err != routedErr) {
+            routeStandardStreams();
+        }
+        ThreadStream threadOut = out;
+        ThreadStream threadErr = err;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        threadOut.buffer.set(printed);
+        threadErr.buffer.set(errors);
+        try {
+            main.invoke(null, (Object) new String[]{file.toString()});
+        } catch (InvocationTargetException e) {
+            errors.writeBytes(String.valueOf(e.getCause()).getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalAccessException e) {
+            errors.writeBytes(String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            threadOut.buffer.remove();
+            threadErr.buffer.remove();
+        }
+        String message = errors.toString(StandardCharsets.UTF_8).trim();
+        return new CheckResult(codeOf(printed.toString(StandardCharsets.UTF_8).trim()),
+                message.isEmpty() ? null : message);
+    }
+
+    /**
+     * @param printed - what the reference printed to System.out, trimmed
+     * @return - the code printed, NO_CODE if it isn't a single code
+     */
+    private static int codeOf(String printed) {
+        try {
+            return Integer.parseInt(printed);
+        } catch (NumberFormatException e) {
+            return NO_CODE;
+        }
+    }
+
+    /**
+     * closes the class loader of the jar. the standard streams stay routed
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        loader.close();
+    }
+
+    /**
+     * a stream that writes to the buffer of the current thread, if it has one, and to the original stream
+     * otherwise
+     */
+    private static class ThreadStream extends OutputStream {
+        /**
+         * the buffer of each thread which runs the reference
+         */
+        private ThreadLocal<ByteArrayOutputStream> buffer = new ThreadLocal<>();
+        /**
+         * the stream this stream replaced
+         */
+        private OutputStream original;
+
+        /**
+         * @param original - the stream this stream replaces
+         */
+        private ThreadStream(OutputStream original) {
+            this.original = original;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ByteArrayOutputStream threadBuffer = buffer.get();
+            if (threadBuffer != null) {
+                threadBuffer.write(b);
+            } else {
+                original.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            ByteArrayOutputStream threadBuffer = buffer.get();
+            if (threadBuffer != null) {
+                threadBuffer.write(bytes, offset, length);
+            } else {
+                original.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.get() == null) {
+                original.flush();
+            }
+        }
+    }
+}
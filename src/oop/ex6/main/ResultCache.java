@@ -0,0 +1,467 @@
+package oop.ex6.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * a cache of check results on the disk, which lasts between runs. each result is kept in its own file,
+ * named by a hash of the content of the checked file and of the class files of the validator, so a file
+ * that didn't change is answered without parsing it, and a new build never uses the results of an older
+ * one. entries are written to a temporary file and moved to their name, so many runs can write to the
+ * same cache at once without a lock. the total size of the entries is estimated in a small file, added to
+ * by every run that stores entries, so the directory is walked only when the estimate goes over the
+ * bound, and then the oldest entries are removed until the size is well under it
+ */
+public class ResultCache {
+    /**
+     * the directory of the classes of the validator, relative to the root of their jar or directory
+     */
+    private static String CLASSES_DIRECTORY = "oop/ex6";
+    /**
+     * the suffix of the class files
+     */
+    private static String CLASS_SUFFIX = ".class";
+    /**
+     * the version of the validator, the hash of all of its class files, so any build that changes the
+     * checks starts from an empty cache. null until it is first needed
+     */
+    private static volatile String validatorVersion;
+    /**
+     * the default bound on the total size of the entries, in bytes
+     */
+    public static long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    /**
+     * the algorithm of the hash of the content
+     */
+    private static String DIGEST_ALGORITHM = "SHA-256";
+    /**
+     * the suffix of the temporary files of entries being written
+     */
+    private static String TEMP_SUFFIX = ".tmp";
+    /**
+     * separates the code of an entry from its message
+     */
+    private static char SEPARATOR = '\n';
+    /**
+     * the size of the buffer used to hash a file
+     */
+    private static int BUFFER_SIZE = 64 * 1024;
+    /**
+     * the radix of the hash in the names of the entries
+     */
+    private static int HEX_RADIX = 16;
+    /**
+     * the bits of a hex digit
+     */
+    private static int HEX_DIGIT_BITS = 4;
+    /**
+     * the mask of a hex digit
+     */
+    private static int HEX_DIGIT_MASK = 0xf;
+    /**
+     * the number of characters of the hash in the name of the directory of an entry
+     */
+    private static int PREFIX_LENGTH = 2;
+    /**
+     * the name of the file of the estimate of the total size of the entries, in the directory of the cache
+     */
+    private static String ESTIMATE_FILE = "size";
+    /**
+     * the part of the bound that eviction leaves, so the next few runs don't walk the directory again
+     */
+    private static double EVICTION_TARGET = 0.75;
+    /**
+     * the directory of the cache
+     */
+    private Path directory;
+    /**
+     * the bound on the total size of the entries, in bytes
+     */
+    private long maxBytes;
+    /**
+     * the bytes of the entries this cache stored since the estimate was last updated
+     */
+    private AtomicLong storedBytes = new AtomicLong();
+
+    /**
+     * @param directory - the directory of the cache, created if it doesn't exist
+     */
+    public ResultCache(Path directory) {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param directory - the directory of the cache, created if it doesn't exist
+     * @param maxBytes  - the bound on the total size of the entries, in bytes
+     */
+    public ResultCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * checks a single file, or answers from the cache if a file with the same content was checked
+     *
+     * @param path       - path of the file to check
+     * @param isParallel - true to check the bodies of the methods in parallel
+     * @return - the result of the check
+     */
+    public CheckResult check(String path, boolean isParallel) {
+        return check(path, isParallel, null);
+    }
+
+    /**
+     * checks a single file, or answers from the cache if a file with the same content was checked
+     *
+     * @param path       - path of the file to check
+     * @param isParallel - true to check the bodies of the methods in parallel
+     * @param stats      - the statistics of the run to add the file to, null to keep none
+     * @return - the result of the check
+     */
+    public CheckResult check(String path, boolean isParallel, RunStats stats) {
+        return check(Paths.get(path), isParallel, stats);
+    }
+
+    /**
+     * checks a single file on any file system, or answers from the cache if a file with the same content
+     * was checked
+     *
+     * @param file       - the file to check
+     * @param isParallel - true to check the bodies of the methods in parallel
+     * @param stats      - the statistics of the run to add the file to, null to keep none
+     * @return - the result of the check
+     */
+    public CheckResult check(Path file, boolean isParallel, RunStats stats) {
+        String key;
+        try {
+            key = hash(file);
+        } catch (IOException e) { // the check reports the error of reading the file
+            return Sjavac.check(file, isParallel, stats);
+        }
+        CheckResult result = lookup(key);
+        if (result == null) {
+            result = Sjavac.check(file, isParallel, stats);
+            store(key, result);
+        } else if (stats != null) {
+            stats.addCached(result);
+        }
+        return result;
+    }
+
+    /**
+     * @param key - the hash of the content of a file
+     * @return - the result kept for the key, null if there is none
+     */
+    public CheckResult lookup(String key) {
+        Path entry = entryPath(key);
+        try {
+            String text = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            int separator = text.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new CheckResult(Integer.parseInt(text), null);
+            }
+            return new CheckResult(Integer.parseInt(text.substring(0, separator)),
+                    text.substring(separator + 1));
+        } catch (IOException | NumberFormatException e) { // a missing or broken entry is a miss
+            return null;
+        }
+    }
+
+    /**
+     * keeps a result for the given key. results of files that could not be read are not kept
+     *
+     * @param key    - the hash of the content of a file
+     * @param result - the result of checking the file
+     */
+    public void store(String key, CheckResult result) {
+        if (result.getCode() == CheckResult.IO_ERROR) {
+            return;
+        }
+        String text = result.getMessage() == null ? Integer.toString(result.getCode()) :
+                result.getCode() + String.valueOf(SEPARATOR) + result.getMessage();
+        Path entry = entryPath(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temp = Files.createTempFile(entry.getParent(), key, TEMP_SUFFIX);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            Files.write(temp, bytes);
+            storedBytes.addAndGet(bytes.length);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) { // the cache is only an optimization, the result is still returned
+        }
+    }
+
+    /**
+     * adds the entries stored by this cache to the estimate of the total size, and removes the least
+     * recently used entries if the estimate is over the bound. a run which stored nothing changes nothing
+     */
+    public void evict() {
+        long stored = storedBytes.getAndSet(0);
+        if (stored == 0) {
+            return;
+        }
+        long estimate = readEstimate();
+        if (estimate >= 0 && estimate + stored <= maxBytes) {
+            writeEstimate(estimate + stored);
+            return;
+        }
+        writeEstimate(removeOldest((long) (maxBytes * EVICTION_TARGET)));
+    }
+
+    /**
+     * walks the directory and removes the least recently used entries until their total size is under
+     * the given size
+     *
+     * @param target - the size to leave, in bytes
+     * @return - the total size of the entries left
+     */
+    private long removeOldest(long target) {
+        List<Path> entries;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            entries = walk.filter(p -> Files.isRegularFile(p) && !p.toString().endsWith(TEMP_SUFFIX) &&
+                    !p.equals(directory.resolve(ESTIMATE_FILE))).collect(Collectors.toList());
+        } catch (IOException e) {
+            return 0;
+        }
+        List<long[]> stats = new ArrayList<>(); // the index, last use and size of each entry
+        long total = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            try {
+                long size = Files.size(entries.get(i));
+                stats.add(new long[]{i, Files.getLastModifiedTime(entries.get(i)).toMillis(), size});
+                total += size;
+            } catch (IOException e) { // removed by another run
+            }
+        }
+        stats.sort(Comparator.comparingLong(stat -> stat[1]));
+        for (int i = 0; i < stats.size() && total > target; i++) {
+            try {
+                Files.deleteIfExists(entries.get((int) stats.get(i)[0]));
+            } catch (IOException e) {
+                continue;
+            }
+            total -= stats.get(i)[2];
+        }
+        return total;
+    }
+
+    /**
+     * @return - the estimate of the total size of the entries, -1 if there is none yet
+     */
+    private long readEstimate() {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(directory.resolve(ESTIMATE_FILE)),
+                    StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) { // the directory is walked to find the size
+            return -1;
+        }
+    }
+
+    /**
+     * replaces the estimate of the total size of the entries. runs which update it at once may lose an
+     * addition of each other, which only lets the cache grow a little over its bound until the next walk
+     *
+     * @param estimate - the estimate, in bytes
+     */
+    private void writeEstimate(long estimate) {
+        Path file = directory.resolve(ESTIMATE_FILE);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, ESTIMATE_FILE, TEMP_SUFFIX);
+            Files.write(temp, Long.toString(estimate).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) { // the next run walks the directory again
+        }
+    }
+
+    /**
+     * @param file - the file to hash
+     * @return - the hash of the content of the file and the version of the validator, in hex
+     * @throws IOException - if the file or the classes of the validator could not be read
+     */
+    public static String hash(Path file) throws IOException {
+        String version = validatorVersion;
+        if (version == null) {
+            version = classesHash();
+            validatorVersion = version;
+        }
+        return hash(file, version);
+    }
+
+    /**
+     * hashes the names and the content of the class files of the validator, in the jar or the directory
+     * this class was loaded from
+     *
+     * @return - the hash of the class files, in hex
+     * @throws IOException - if the classes were not loaded from a jar or a directory that can be read
+     */
+    private static String classesHash() throws IOException {
+        CodeSource source = ResultCache.class.getProtectionDomain().getCodeSource();
+        if (source == null) {
+            throw new IOException("the location of the classes of the validator is unknown");
+        }
+        Path location;
+        try {
+            location = Paths.get(source.getLocation().toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException(e);
+        }
+        MessageDigest digest = newDigest();
+        if (Files.isDirectory(location)) {
+            List<Path> classes = new ArrayList<>();
+            addClasses(location.resolve(CLASSES_DIRECTORY), classes);
+            Collections.sort(classes);
+            for (Path path : classes) {
+                byte[] bytes = Files.readAllBytes(path);
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                update(digest, location.relativize(path).toString().replace(File.separatorChar, '/'),
+                        crc.getValue(), bytes.length);
+            }
+            return toHex(digest.digest());
+        }
+        try (ZipFile jar = new ZipFile(location.toFile())) { // the crc of an entry is in its header
+            List<String> names = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(CLASSES_DIRECTORY) && name.endsWith(CLASS_SUFFIX)) {
+                    names.add(name);
+                }
+            }
+            Collections.sort(names);
+            for (String name : names) {
+                ZipEntry entry = jar.getEntry(name);
+                update(digest, name, entry.getCrc(), entry.getSize());
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * adds a class file to the hash of the classes, by its name, the crc of its content and its size.
+     * a crc is much cheaper than hashing the content when the program has just started
+     *
+     * @param digest - the hash of the classes
+     * @param name   - the name of the class file, relative to the root of the packages
+     * @param crc    - the crc of the content of the file
+     * @param size   - the size of the file
+     */
+    private static void update(MessageDigest digest, String name, long crc, long size) {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) SEPARATOR);
+        digest.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(crc).putLong(size).array());
+    }
+
+    /**
+     * adds the class files under a directory, in all of its subdirectories
+     *
+     * @param directory - a directory
+     * @param classes   - the list to add the class files to
+     * @throws IOException
+     */
+    private static void addClasses(Path directory, List<Path> classes) throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+            for (Path path : paths) {
+                if (Files.isDirectory(path)) {
+                    addClasses(path, classes);
+                } else if (path.toString().endsWith(CLASS_SUFFIX)) {
+                    classes.add(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param file    - the file to hash
+     * @param version - the version of the program whose results are kept by the hash
+     * @return - the hash of the content of the file, the version and whether the file is decompressed
+     * while it is checked, in hex, so a gzip file and the same bytes under another name have different
+     * keys
+     * @throws IOException
+     */
+    public static String hash(Path file, String version) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        if (file.toString().endsWith(Parser.GZIP_SUFFIX)) {
+            digest.update(Parser.GZIP_SUFFIX.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) SEPARATOR);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return - a new digest of the hash algorithm
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) { // every java platform has it
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param bytes - a hash
+     * @return - the hash in hex
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> HEX_DIGIT_BITS) & HEX_DIGIT_MASK, HEX_RADIX))
+                    .append(Character.forDigit(b & HEX_DIGIT_MASK, HEX_RADIX));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @param key - the hash of the content of a file
+     * @return - the path of the entry of the key, in a directory named by the start of the key
+     */
+    private Path entryPath(String key) {
+        return directory.resolve(key.substring(0, PREFIX_LENGTH)).resolve(key);
+    }
+}
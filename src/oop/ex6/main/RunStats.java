@@ -0,0 +1,215 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the statistics of a whole run, added up from the statistics of each file checked. the files of a batch
+ * are checked by many threads at once, so every number is kept in an adder which doesn't make the
+ * threads wait for each other. the report is a json document
+ */
+public class RunStats {
+    /**
+     * the percentiles of the time of the lines of each kind in the report
+     */
+    private static int[] PERCENTILES = {50, 90, 99};
+    /**
+     * nanoseconds in a second
+     */
+    private static double NANOS_PER_SECOND = 1e9;
+    /**
+     * the names of the passes in the report
+     */
+    private static String[] PASSES = {"firstPass", "secondPass"};
+    /**
+     * the counters of all the files, by the indices of ParseStats
+     */
+    private LongAdder[] counts = new LongAdder[ParseStats.COUNTERS];
+    /**
+     * the maxima of all the files, by the indices of ParseStats
+     */
+    private LongAccumulator[] maxima = new LongAccumulator[ParseStats.MAXIMA];
+    /**
+     * the histograms of all the files, by the pass and then the kind of the lines
+     */
+    private LongAdder[][][] latencies =
+            new LongAdder[ParseStats.PASSES][ParseStats.KINDS.length][ParseStats.BUCKETS];
+    /**
+     * the number of files checked
+     */
+    private LongAdder files = new LongAdder();
+    /**
+     * the number of files answered from a cache, without checking them
+     */
+    private LongAdder cachedFiles = new LongAdder();
+    /**
+     * the number of files that are not legal, or could not be read
+     */
+    private LongAdder illegalFiles = new LongAdder();
+    /**
+     * the time the run started
+     */
+    private long startNanos = System.nanoTime();
+
+    /**
+     * statistics of a run which starts now
+     */
+    public RunStats() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+        for (int i = 0; i < maxima.length; i++) {
+            maxima[i] = new LongAccumulator(Math::max, 0);
+        }
+        for (LongAdder[][] pass : latencies) {
+            for (LongAdder[] histogram : pass) {
+                for (int bucket = 0; bucket < histogram.length; bucket++) {
+                    histogram[bucket] = new LongAdder();
+                }
+            }
+        }
+    }
+
+    /**
+     * adds a file that was checked
+     *
+     * @param stats  - the statistics of checking the file
+     * @param result - the result of the check
+     */
+    public void add(ParseStats stats, CheckResult result) {
+        files.increment();
+        if (!result.isLegal()) {
+            illegalFiles.increment();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (stats.getCount(i) != 0) {
+                counts[i].add(stats.getCount(i));
+            }
+        }
+        for (int i = 0; i < maxima.length; i++) {
+            maxima[i].accumulate(stats.getMax(i));
+        }
+        for (int pass = 0; pass < ParseStats.PASSES; pass++) {
+            for (int kind = 0; kind < ParseStats.KINDS.length; kind++) {
+                long[] histogram = stats.getLatencies(pass, kind);
+                for (int bucket = 0; histogram != null && bucket < histogram.length; bucket++) {
+                    if (histogram[bucket] != 0) {
+                        latencies[pass][kind][bucket].add(histogram[bucket]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * adds a file that was answered from a cache
+     *
+     * @param result - the result kept in the cache
+     */
+    public void addCached(CheckResult result) {
+        files.increment();
+        cachedFiles.increment();
+        if (!result.isLegal()) {
+            illegalFiles.increment();
+        }
+    }
+
+    /**
+     * writes the report to a file
+     *
+     * @param path - the path of the file
+     * @throws IOException
+     */
+    public void write(Path path) throws IOException {
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return - the report, a json document. the lines are all the lines of the files checked, and the
+     * kinds count only the lines checked, which stop at the first error of a file. the times are in
+     * nanoseconds, and the time of each phase is the sum over all the files, so it may be more than the
+     * time of the run when files are checked in parallel. the percentiles are the upper bounds of the
+     * buckets of a histogram, within a quarter of a power of two
+     */
+    public String toJson() {
+        long wallNanos = System.nanoTime() - startNanos;
+        long lines = counts[ParseStats.FILE_LINES].sum();
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"files\": ").append(files.sum()).append(",\n");
+        json.append("  \"cachedFiles\": ").append(cachedFiles.sum()).append(",\n");
+        json.append("  \"illegalFiles\": ").append(illegalFiles.sum()).append(",\n");
+        json.append("  \"lines\": ").append(lines).append(",\n");
+        json.append("  \"wallNanos\": ").append(wallNanos).append(",\n");
+        json.append("  \"linesPerSecond\": ").append(Math.round(lines * NANOS_PER_SECOND /
+                Math.max(wallNanos, 1))).append(",\n");
+        json.append("  \"phaseNanos\": {\"read\": ").append(counts[ParseStats.READ_NANOS].sum())
+                .append(", \"firstPass\": ").append(counts[ParseStats.FIRST_PASS_NANOS].sum())
+                .append(", \"secondPass\": ").append(counts[ParseStats.SECOND_PASS_NANOS].sum())
+                .append("},\n");
+        json.append("  \"lineKinds\": {");
+        for (int kind = 0; kind < ParseStats.KINDS.length; kind++) {
+            json.append(kind > 0 ? ", " : "").append('"').append(ParseStats.KINDS[kind]).append("\": ")
+                    .append(counts[ParseStats.LINES + kind].sum());
+        }
+        json.append("},\n");
+        json.append("  \"maxScopeDepth\": ").append(maxima[ParseStats.MAX_DEPTH].get()).append(",\n");
+        json.append("  \"variables\": ").append(counts[ParseStats.VARIABLES].sum()).append(",\n");
+        json.append("  \"methods\": ").append(counts[ParseStats.METHODS].sum()).append(",\n");
+        json.append("  \"callSites\": ").append(counts[ParseStats.CALL_SITES].sum()).append(",\n");
+        json.append("  \"peakScopeSize\": {\"global\": ").append(maxima[ParseStats.PEAK_GLOBAL_SCOPE].get())
+                .append(", \"local\": ").append(maxima[ParseStats.PEAK_LOCAL_SCOPE].get()).append("},\n");
+        json.append("  \"lineLatencyNanos\": {");
+        for (int pass = 0; pass < ParseStats.PASSES; pass++) {
+            json.append(pass > 0 ? "," : "").append("\n    \"").append(PASSES[pass]).append("\": {");
+            for (int kind = 0; kind < ParseStats.KINDS.length; kind++) {
+                json.append(kind > 0 ? "," : "").append("\n      \"").append(ParseStats.KINDS[kind])
+                        .append("\": ");
+                appendPercentiles(json, latencies[pass][kind]);
+            }
+            json.append("\n    }");
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * appends the number of samples of a histogram, its percentiles and its maximum
+     *
+     * @param json      - the report
+     * @param histogram - the histogram
+     */
+    private static void appendPercentiles(StringBuilder json, LongAdder[] histogram) {
+        long[] buckets = new long[histogram.length];
+        long samples = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            buckets[bucket] = histogram[bucket].sum();
+            samples += buckets[bucket];
+        }
+        json.append("{\"count\": ").append(samples);
+        for (int percentile : PERCENTILES) {
+            json.append(", \"p").append(percentile).append("\": ")
+                    .append(valueAt(buckets, (samples * percentile + 99) / 100));
+        }
+        json.append(", \"max\": ").append(valueAt(buckets, samples)).append('}');
+    }
+
+    /**
+     * @param buckets - the counts of a histogram
+     * @param rank    - the rank of a sample, starting at one
+     * @return - the upper bound of the bucket of the sample, zero if there are no samples
+     */
+    private static long valueAt(long[] buckets, long rank) {
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank && seen > 0) {
+                return ParseStats.maxOf(bucket);
+            }
+        }
+        return 0;
+    }
+}
@@ -1,24 +1,264 @@
 package oop.ex6.main;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * the main file of the program, which uses the parser to check each file
  */
 public class Sjavac {
+    /**
+     * the flag that turns on the batch mode, which checks many files and directories in one run
+     */
+    private static String BATCH_FLAG = "--batch";
+    /**
+     * the flag that starts a resident server which answers check requests
+     */
+    private static String SERVER_FLAG = "--server";
+    /**
+     * the flag that checks the bodies of the methods of a single file in parallel
+     */
+    private static String PARALLEL_FLAG = "--parallel";
+    /**
+     * the flag, followed by a directory, that answers files which didn't change from a cache on the disk
+     */
+    public static String CACHE_FLAG = "--cache";
+    /**
+     * the flag that reports all of the errors of a single file, each with its row, instead of the first
+     */
+    private static String ALL_ERRORS_FLAG = "--all-errors";
+    /**
+     * the flag, followed by a path, that writes the statistics of the run to the path as a json document
+     */
+    public static String STATS_FLAG = "--stats";
+    /**
+     * a path standing for the standard input
+     */
+    public static String STDIN_PATH = "-";
 
     public static void main(String[] args){
-        String path = args[0];
+        if (args.length > 0 && args[0].equals(SERVER_FLAG)) {
+            try {
+                CheckServer.serve(args.length > 1 ? Integer.parseInt(args[1]) : CheckServer.DEFAULT_PORT);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+            return;
+        }
+        run(args, System.in, System.out, System.err);
+    }
+
+    /**
+     * runs the program with the given arguments and streams
+     *
+     * @param args - the program arguments
+     * @param in   - the stream to read the code from when the path is "-"
+     * @param out  - the stream to print the results to
+     * @param err  - the stream to print the error messages to
+     */
+    public static void run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        ResultCache cache = null;
+        String statsPath = null;
+        while (args.length > 1 && (args[0].equals(CACHE_FLAG) || args[0].equals(STATS_FLAG))) {
+            if (args[0].equals(CACHE_FLAG)) {
+                cache = new ResultCache(Paths.get(args[1]));
+            } else {
+                statsPath = args[1];
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        RunStats stats = statsPath == null ? null : new RunStats();
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            BatchRunner.run(Arrays.copyOfRange(args, 1, args.length), out, err, cache, stats);
+        } else if (args.length == 1 && BatchRunner.isArchive(Paths.get(args[0]))) { // a result per entry
+            BatchRunner.run(args, out, err, cache, stats);
+        } else if (args.length > 1 && args[0].equals(ALL_ERRORS_FLAG)) {
+            CheckResult result = checkAllErrors(args[1], stats);
+            out.println(result.getCode());
+            if (!result.isLegal()) {
+                err.println(result.getMessage());
+            }
+        } else {
+            boolean isParallel = args.length > 1 && args[0].equals(PARALLEL_FLAG);
+            String path = isParallel ? args[1] : args[0];
+            CheckResult result;
+            if (path.equals(STDIN_PATH)) {
+                result = check(in, stats);
+            } else {
+                result = cache == null ? check(path, isParallel, stats) :
+                        cache.check(path, isParallel, stats);
+            }
+            out.println(result.getCode());
+            if (!result.isLegal()) {
+                err.println(result.getMessage());
+            }
+        }
+        if (cache != null) {
+            cache.evict();
+        }
+        if (stats != null) {
+            try {
+                stats.write(Paths.get(statsPath));
+            } catch (IOException e) {
+                err.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * checks a single file with a new parser
+     *
+     * @param path - path of the file to check
+     * @return - the result of the check
+     */
+    public static CheckResult check(String path) {
+        return check(path, false);
+    }
+
+    /**
+     * checks a single file with a new parser
+     *
+     * @param path       - path of the file to check
+     * @param isParallel - true to check the bodies of the methods in parallel
+     * @return - the result of the check
+     */
+    public static CheckResult check(String path, boolean isParallel) {
+        return check(path, isParallel, null);
+    }
+
+    /**
+     * checks a single file with a new parser
+     *
+     * @param path       - path of the file to check
+     * @param isParallel - true to check the bodies of the methods in parallel
+     * @param stats      - the statistics of the run to add the file to, null to keep none
+     * @return - the result of the check
+     */
+    public static CheckResult check(String path, boolean isParallel, RunStats stats) {
+        return check(Paths.get(path), isParallel, stats);
+    }
+
+    /**
+     * checks a single file on any file system with a new parser
+     *
+     * @param file       - the file to check, decompressed while it is read if it is a gzip file
+     * @param isParallel - true to check the bodies of the methods in parallel
+     * @param stats      - the statistics of the run to add the file to, null to keep none
+     * @return - the result of the check
+     */
+    public static CheckResult check(Path file, boolean isParallel, RunStats stats) {
+        Parser parser = new Parser();
+        parser.setParallel(isParallel);
+        ParseStats fileStats = stats == null ? null : new ParseStats();
+        parser.setStats(fileStats);
+        CheckResult result;
+        try {
+            parser.parse(file);
+            result = new CheckResult(CheckResult.LEGAL, null);
+        } catch (IOException e) {
+            result = new CheckResult(CheckResult.IO_ERROR, e.getMessage());
+        } catch (GeneralException e) {
+            result = new CheckResult(CheckResult.ILLEGAL, e.getMessage());
+        }
+        if (stats != null) {
+            stats.add(fileStats, result);
+        }
+        return result;
+    }
+
+    /**
+     * checks a single file with a new parser, which goes on after each error and collects all of them
+     *
+     * @param path - path of the file to check
+     * @return - the result of the check, whose message has a line for each error
+     */
+    public static CheckResult checkAllErrors(String path) {
+        return checkAllErrors(path, null);
+    }
+
+    /**
+     * checks a single file with a new parser, which goes on after each error and collects all of them
+     *
+     * @param path  - path of the file to check
+     * @param stats - the statistics of the run to add the file to, null to keep none
+     * @return - the result of the check, whose message has a line for each error
+     */
+    public static CheckResult checkAllErrors(String path, RunStats stats) {
+        Parser parser = new Parser();
+        parser.setCollectingErrors(true);
+        ParseStats fileStats = stats == null ? null : new ParseStats();
+        parser.setStats(fileStats);
+        CheckResult result;
+        try {
+            if (parser.parse(path)) {
+                result = new CheckResult(CheckResult.LEGAL, null);
+            } else {
+                StringBuilder message = new StringBuilder();
+                for (Diagnostic diagnostic : parser.getDiagnostics()) {
+                    message.append(message.length() > 0 ? "\n" : "").append(diagnostic);
+                }
+                result = new CheckResult(CheckResult.ILLEGAL, message.toString());
+            }
+        } catch (IOException e) {
+            result = new CheckResult(CheckResult.IO_ERROR, e.getMessage());
+        } catch (GeneralException e) {
+            result = new CheckResult(CheckResult.ILLEGAL, e.getMessage());
+        }
+        if (stats != null) {
+            stats.add(fileStats, result);
+        }
+        return result;
+    }
+
+    /**
+     * checks the code read from the given stream with a new parser
+     *
+     * @param in - the stream of the code, in UTF-8
+     * @return - the result of the check
+     */
+    public static CheckResult check(InputStream in) {
+        return check(in, null);
+    }
+
+    /**
+     * checks the code read from the given stream with a new parser
+     *
+     * @param in    - the stream of the code, in UTF-8
+     * @param stats - the statistics of the run to add the code to, null to keep none
+     * @return - the result of the check
+     */
+    public static CheckResult check(InputStream in, RunStats stats) {
         Parser parser = new Parser();
+        ParseStats fileStats = stats == null ? null : new ParseStats();
+        parser.setStats(fileStats);
+        CheckResult result;
         try {
-            parser.parse(path);
-            System.out.println("0");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in,
+                    StandardCharsets.UTF_8.newDecoder()));
+            List<String> fileLines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fileLines.add(line);
+            }
+            parser.parse(fileLines);
+            result = new CheckResult(CheckResult.LEGAL, null);
         } catch (IOException e) {
-            System.out.println("2");
-            System.err.println(e.getMessage());
+            result = new CheckResult(CheckResult.IO_ERROR, e.getMessage());
         } catch (GeneralException e) {
-            System.out.println("1");
-            System.err.println(e.getMessage());
+            result = new CheckResult(CheckResult.ILLEGAL, e.getMessage());
+        }
+        if (stats != null) {
+            stats.add(fileStats, result);
         }
+        return result;
     }
 }
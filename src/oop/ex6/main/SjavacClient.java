@@ -0,0 +1,50 @@
+package oop.ex6.main;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * a thin client which forwards its arguments and standard input to a running CheckServer and prints the
+ * answer as Sjavac would have printed it
+ */
+public class SjavacClient {
+    /**
+     * the flag that chooses the port of the server
+     */
+    private static String PORT_FLAG = "--port";
+    /**
+     * the prefix of a flag argument
+     */
+    private static String FLAG_PREFIX = "--";
+
+    public static void main(String[] args) {
+        int port = CheckServer.DEFAULT_PORT;
+        if (args.length > 1 && args[0].equals(PORT_FLAG)) {
+            port = Integer.parseInt(args[1]);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        for (int i = 0; i < args.length; i++) { // the server may run in another directory
+            if (!args[i].startsWith(FLAG_PREFIX) && !args[i].equals(Sjavac.STDIN_PATH)) {
+                args[i] = Paths.get(args[i]).toAbsolutePath().toString();
+            }
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            byte[] input = Arrays.asList(args).contains(Sjavac.STDIN_PATH) ? System.in.readAllBytes() :
+                    new byte[0];
+            CheckServer.writeRequest(new DataOutputStream(socket.getOutputStream()), args, input);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            System.out.write(CheckServer.readBytes(in));
+            System.out.flush();
+            System.err.write(CheckServer.readBytes(in));
+            System.err.flush();
+        } catch (IOException e) {
+            System.out.println(CheckResult.IO_ERROR);
+            System.err.println(e.getMessage());
+        }
+    }
+}
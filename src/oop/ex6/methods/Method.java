@@ -1,12 +1,13 @@
 package oop.ex6.methods;
 
 import oop.ex6.variables.Variable;
+import oop.ex6.variables.VariableFactory;
 
 import java.util.ArrayList;
 
 /**
- * class representing a method object that has a name, list of parameters and variables, and a start
- * row of the method in the file
+ * class representing a method object that has a name, list of parameters, and a start row of the method
+ * in the file
  */
 public class Method {
     /**
@@ -22,14 +23,17 @@ public class Method {
      */
     private ArrayList<Variable> parameters;
     /**
-     * list of method variables
+     * the type of each parameter
      */
-    private ArrayList<Variable> methodVariables = new ArrayList<>();
+    private VariableFactory.Type[] parameterTypes;
 
     public Method(String name, ArrayList<Variable> parameters, int startRow) {
         this.name = name;
         this.parameters = parameters;
-        methodVariables.addAll(parameters);
+        this.parameterTypes = new VariableFactory.Type[parameters.size()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = parameters.get(i).getType();
+        }
         this.startRow = startRow;
     }
 
@@ -48,10 +52,10 @@ public class Method {
     }
 
     /**
-     * @return methods variables
+     * @return - the type of each parameter
      */
-    public ArrayList<Variable> getMethodVariables() {
-        return this.methodVariables;
+    public VariableFactory.Type[] getParameterTypes() {
+        return this.parameterTypes;
     }
 
     /**
@@ -6,6 +6,6 @@ package oop.ex6.methods;
 public class MethodException extends Exception {
 
     public MethodException(String s){
-        super(s);
+        super(s, null, false, false); // without a stack trace
     }
 }
@@ -1,6 +1,7 @@
 package oop.ex6.methods;
 
 import oop.ex6.ifAndWhileBlocks.BlockFactory;
+import oop.ex6.variables.SymbolTable;
 import oop.ex6.variables.Variable;
 import oop.ex6.variables.VariableException;
 import oop.ex6.variables.VariableFactory;
@@ -50,54 +51,50 @@ public class MethodFactory {
 
 
     /**
-     * create a new method matching the given details
+     * create a new method matching the given details. the parameters are found between the commas of the
+     * line, in place, as String.split would find them - commas at the end are dropped
      *
      * @param line  - a string representing the details of the method
      * @param start - row index where the method is created
+     * @param methods - the methods declared before
      * @return - a new method matching the details
      */
-    public static Method createMethod(String line, int start, ArrayList<Method> methods,
-                                      ArrayList<Variable> globalVariables)
+    public static Method createMethod(String line, int start, MethodRegistry methods)
             throws VariableException, MethodException {
         Matcher m = METHOD_LINE.matcher(line);
         if (m.matches()) {
-            if (isContain(m.group(ONE), methods) == null) {
+            String name = m.group(ONE);
+            if (methods.get(name) == null) {
                 ArrayList<Variable> paramVars = new ArrayList<>();
-                String[] params = m.group(TWO).split(",");
-                Matcher m1 = EMPTY_PARAMETERS.matcher(params[ZERO]);
-                if (m1.matches() && params.length == ONE) {
-                    return new Method(m.group(ONE), paramVars, start);
-                } else {
-                    for (String param : params) {
-                        ArrayList<Variable> res = new ArrayList<>();
-                        VariableFactory.parseDeclaration(param + ";", globalVariables, res,
-                                true);
-                        if (res.size() < ONE) {
-                            throw new MethodException(ILLEGAL_PARAMETERS);
-                        }
-                        Variable var = res.get(ZERO);
-                        paramVars.add(var);
-                        globalVariables.add(var);
+                int paramsStart = m.start(TWO);
+                int paramsEnd = m.end(TWO);
+                int firstComma = line.indexOf(',', paramsStart);
+                boolean hasCommas = firstComma >= ZERO && firstComma < paramsEnd;
+                while (paramsEnd > paramsStart && line.charAt(paramsEnd - ONE) == ',') {
+                    paramsEnd--;
+                }
+                if (hasCommas && paramsEnd == paramsStart) { // nothing but commas
+                    throw new MethodException(ILLEGAL_PARAMETERS);
+                }
+                if ((firstComma < ZERO || firstComma >= paramsEnd) &&
+                        EMPTY_PARAMETERS.matcher(line).region(paramsStart, paramsEnd).matches()) {
+                    return new Method(name, paramVars, start);
+                }
+                SymbolTable paramTable = new SymbolTable();
+                for (int paramStart = paramsStart; paramStart <= paramsEnd; ) {
+                    int paramEnd = line.indexOf(',', paramStart);
+                    paramEnd = paramEnd < ZERO || paramEnd > paramsEnd ? paramsEnd : paramEnd;
+                    ArrayList<Variable> res = new ArrayList<>();
+                    VariableFactory.parseParameter(line, paramStart, paramEnd, paramTable, res);
+                    if (res.size() < ONE) {
+                        throw new MethodException(ILLEGAL_PARAMETERS);
                     }
-                    return new Method(m.group(ONE), paramVars, start);
+                    paramVars.add(res.get(ZERO));
+                    paramStart = paramEnd + ONE;
                 }
+                return new Method(name, paramVars, start);
             }
         }
         throw new MethodException(ILLEGAL_METHOD);
     }
-
-    /**
-     * checks if a method was already declared, while trying to create a new one
-     *
-     * @param name name of the method
-     * @return the method, null if the method was not declared before
-     */
-    public static Method isContain(String name, List<Method> methods) {
-        for (Method method : methods) {
-            if (method.getName().equals(name)) {
-                return method;
-            }
-        }
-        return null;
-    }
 }
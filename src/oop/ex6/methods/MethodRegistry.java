@@ -0,0 +1,179 @@
+package oop.ex6.methods;
+
+import oop.ex6.variables.SymbolTable;
+import oop.ex6.variables.VariableFactory;
+import oop.ex6.variables.VariableValidation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * the methods of a file by their names, in the order they are declared. a call is checked by resolving
+ * each argument straight to a type, and the parts of the check that don't depend on the variables of
+ * the calling scope are kept for the next call with the same arguments
+ */
+public class MethodRegistry {
+    /**
+     * pattern suits for the arguments of a call without arguments
+     */
+    private static Pattern EMPTY_ARGUMENTS = Pattern.compile("\\s*");
+    /**
+     * separates the arguments of a call
+     */
+    private static char ARGUMENT_SEPARATOR = ',';
+    /**
+     * the methods by their names
+     */
+    private HashMap<String, Method> methodsByName = new HashMap<>();
+    /**
+     * the methods in the order they are declared
+     */
+    private ArrayList<Method> methods = new ArrayList<>();
+    /**
+     * the calls checked so far, by the name of the method and the text of the arguments. methods may be
+     * checked in parallel, so the map is concurrent
+     */
+    private ConcurrentHashMap<String, CallShape> calls = new ConcurrentHashMap<>();
+
+    /**
+     * the parts of a call which don't depend on the variables of the calling scope
+     */
+    private static class CallShape {
+        /**
+         * the method called
+         */
+        private Method method;
+        /**
+         * false if the call is illegal whatever the variables of the scope are
+         */
+        private boolean isLegal;
+        /**
+         * for each argument, the name of the variable it passes, or null if it is a fitting literal
+         */
+        private String[] variableNames;
+    }
+
+    /**
+     * adds a method to the registry
+     *
+     * @param method - the method to add
+     */
+    public void add(Method method) {
+        methodsByName.putIfAbsent(method.getName(), method);
+        methods.add(method);
+    }
+
+    /**
+     * @param name - name of a method
+     * @return - the method with this name, null if there isn't one
+     */
+    public Method get(String name) {
+        return methodsByName.get(name);
+    }
+
+    /**
+     * @param index - index of a method, in the order of the file
+     * @return - the method
+     */
+    public Method get(int index) {
+        return methods.get(index);
+    }
+
+    /**
+     * @return - number of methods
+     */
+    public int size() {
+        return methods.size();
+    }
+
+    /**
+     * checks if a method with the given name exists and the given arguments fit its parameters
+     *
+     * @param name      - name of the method called
+     * @param arguments - the text between the brackets of the call
+     * @param scope     - the variables visible where the method is called
+     * @return - true if the call is legal
+     */
+    public boolean isCallLegal(String name, String arguments, SymbolTable scope) {
+        CallShape shape = calls.computeIfAbsent(name + '(' + arguments, key -> createShape(name, arguments));
+        if (!shape.isLegal) {
+            return false;
+        }
+        VariableFactory.Type[] types = shape.method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (shape.variableNames[i] != null &&
+                    !VariableValidation.isTypeLegal(shape.variableNames[i], types[i], scope)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * resolves the method and the literal arguments of a call
+     *
+     * @param name      - name of the method called
+     * @param arguments - the text between the brackets of the call
+     * @return - the shape of the call
+     */
+    private CallShape createShape(String name, String arguments) {
+        CallShape shape = new CallShape();
+        shape.method = methodsByName.get(name);
+        if (shape.method == null) {
+            return shape;
+        }
+        VariableFactory.Type[] types = shape.method.getParameterTypes();
+        if (EMPTY_ARGUMENTS.matcher(arguments).matches()) {
+            shape.isLegal = types.length == 0;
+            return shape;
+        }
+        ArrayList<String> args = splitArguments(arguments);
+        if (args.size() != types.length) {
+            return shape;
+        }
+        shape.variableNames = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            String arg = args.get(i);
+            if (VariableValidation.checkValue(arg, types[i])) {
+                continue;
+            }
+            Matcher m = VariableFactory.VAR_NAME_PATTERN.matcher(arg);
+            if (!m.matches()) {
+                return shape;
+            }
+            shape.variableNames[i] = m.group(1);
+        }
+        shape.isLegal = true;
+        return shape;
+    }
+
+    /**
+     * splits the arguments of a call on the commas which are not inside a string or char literal
+     *
+     * @param arguments - the text between the brackets of the call
+     * @return - the text of each argument
+     */
+    private static ArrayList<String> splitArguments(String arguments) {
+        ArrayList<String> args = new ArrayList<>();
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < arguments.length(); i++) {
+            char c = arguments.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == ARGUMENT_SEPARATOR) {
+                args.add(arguments.substring(start, i));
+                start = i + 1;
+            }
+        }
+        args.add(arguments.substring(start));
+        return args;
+    }
+}
@@ -0,0 +1,37 @@
+package oop.ex6.variables;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * the flight recorder event of a sampled lookup of a variable. it is disabled by default, and when it is
+ * enabled only one of every 1024 lookups of a table is recorded
+ */
+@Name("oop.ex6.SymbolLookup")
+@Label("Symbol Lookup")
+@Description("one of every 1024 lookups of a symbol table")
+@Category("s-java")
+@Enabled(false)
+@StackTrace(false)
+public class LookupEvent extends Event {
+    /**
+     * the name looked up
+     */
+    @Label("Name")
+    public String name;
+    /**
+     * the number of open scopes
+     */
+    @Label("Depth")
+    public int depth;
+    /**
+     * true if a variable was found
+     */
+    @Label("Found")
+    public boolean isFound;
+}
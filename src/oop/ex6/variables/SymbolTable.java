@@ -0,0 +1,240 @@
+package oop.ex6.variables;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * the variables visible at a point of the program - a chain of scopes, each one a hash map from a name to
+ * its variable. the first scope holds the global variables; it can be frozen once all of them are known,
+ * and from then on an assignment to a global variable is kept in a map of the method instead, which is
+ * looked up between the scopes of the method and the global scope but isn't a scope of its own. the maps
+ * of closed scopes are kept and reused by the next scopes opened
+ */
+public class SymbolTable {
+    /**
+     * index of the global scope
+     */
+    private static int GLOBAL_SCOPE = 0;
+    /**
+     * index of the scope of a method
+     */
+    private static int METHOD_SCOPE = 1;
+    /**
+     * one of this number of lookups is recorded, when lookups are recorded
+     */
+    private static int LOOKUP_SAMPLE = 1024;
+    /**
+     * the maps of the scopes, including the closed scopes kept for reuse
+     */
+    private ArrayList<Map<String, Variable>> scopes = new ArrayList<>();
+    /**
+     * the global variables assigned in the current method after the global scope was frozen
+     */
+    private Map<String, Variable> assignedGlobals = new HashMap<>();
+    /**
+     * number of open scopes
+     */
+    private int depth = 0;
+    /**
+     * true if the global scope is frozen
+     */
+    private boolean isFrozen = false;
+    /**
+     * the number of lookups so far
+     */
+    private long lookups = 0;
+    /**
+     * the number of scopes opened so far
+     */
+    private long pushes = 0;
+    /**
+     * the number of variables declared so far
+     */
+    private long declarations = 0;
+    /**
+     * the largest number of variables declared in a single scope so far
+     */
+    private int peakScopeSize = 0;
+
+    /**
+     * a table with a single open scope
+     */
+    public SymbolTable() {
+        push();
+    }
+
+    /**
+     * @return - a new table with a single open scope, the global scope of this table. the global scope
+     * should be frozen, so the two tables can be used at the same time
+     */
+    public SymbolTable withGlobals() {
+        SymbolTable table = new SymbolTable();
+        table.scopes.set(GLOBAL_SCOPE, scopes.get(GLOBAL_SCOPE));
+        table.isFrozen = isFrozen;
+        return table;
+    }
+
+    /**
+     * opens a new empty scope
+     */
+    public void push() {
+        pushes++;
+        if (depth == scopes.size()) {
+            scopes.add(new HashMap<>());
+        } else {
+            scopes.get(depth).clear();
+        }
+        if (depth == METHOD_SCOPE) {
+            assignedGlobals.clear();
+        }
+        depth++;
+    }
+
+    /**
+     * closes the innermost scope
+     */
+    public void pop() {
+        depth--;
+    }
+
+    /**
+     * @return - number of open scopes
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * replaces the global scope with a frozen copy, after the global variables are all declared
+     */
+    public void freezeGlobals() {
+        scopes.set(GLOBAL_SCOPE, Map.copyOf(scopes.get(GLOBAL_SCOPE)));
+        isFrozen = true;
+    }
+
+    /**
+     * @param name - name of a variable
+     * @return - the variable of the innermost scope with this name, null if there isn't one
+     */
+    public Variable lookup(String name) {
+        if (++lookups % LOOKUP_SAMPLE == 0 && FlightRecorder.isInitialized()) {
+            return recordedLookup(name);
+        }
+        return find(name);
+    }
+
+    /**
+     * looks a variable up and records the lookup, if lookups are recorded. it is called only once the
+     * flight recorder has started, as creating the first event loads the whole recorder
+     *
+     * @param name - name of a variable
+     * @return - the variable of the innermost scope that has this name, null if there is none
+     */
+    private Variable recordedLookup(String name) {
+        LookupEvent event = new LookupEvent();
+        event.begin();
+        Variable var = find(name);
+        event.end();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.depth = depth;
+            event.isFound = var != null;
+            event.commit();
+        }
+        return var;
+    }
+
+    /**
+     * @param name - name of a variable
+     * @return - the variable of the innermost scope that has this name, null if there is none
+     */
+    private Variable find(String name) {
+        for (int i = depth - 1; i > GLOBAL_SCOPE; i--) {
+            Variable var = scopes.get(i).get(name);
+            if (var != null) {
+                return var;
+            }
+        }
+        Variable var = assignedGlobals.get(name);
+        return var != null ? var : scopes.get(GLOBAL_SCOPE).get(name);
+    }
+
+    /**
+     * @return - the number of lookups in this table so far
+     */
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return - the number of scopes opened in this table so far
+     */
+    public long getPushes() {
+        return pushes;
+    }
+
+    /**
+     * @return - the number of variables declared in this table so far
+     */
+    public long getDeclarations() {
+        return declarations;
+    }
+
+    /**
+     * @return - the largest number of variables declared in a single scope of this table so far
+     */
+    public int getPeakScopeSize() {
+        return peakScopeSize;
+    }
+
+    /**
+     * @param name - name of a variable
+     * @return - the variable of the innermost scope if it has this name, null otherwise
+     */
+    public Variable lookupLocal(String name) {
+        return scopes.get(depth - 1).get(name);
+    }
+
+    /**
+     * declares a variable in the innermost scope. the first variable declared with a name is the one
+     * kept
+     *
+     * @param var - the variable to declare
+     */
+    public void declare(Variable var) {
+        Map<String, Variable> scope = scopes.get(depth - 1);
+        scope.putIfAbsent(var.getName(), var);
+        declarations++;
+        peakScopeSize = Math.max(peakScopeSize, scope.size());
+    }
+
+    /**
+     * replaces a variable in the innermost scope that has its name, after it was assigned a new value.
+     * nothing changes if the variable found is the given one, which already had a value. a global
+     * variable assigned after the global scope was frozen is replaced only for the current method
+     *
+     * @param var - the variable with its new value
+     */
+    public void assign(Variable var) {
+        String name = var.getName();
+        for (int i = depth - 1; i > GLOBAL_SCOPE; i--) {
+            Variable found = scopes.get(i).get(name);
+            if (found != null) {
+                if (found != var) {
+                    scopes.get(i).put(name, var);
+                }
+                return;
+            }
+        }
+        if (isFrozen) {
+            if (assignedGlobals.get(name) != var && find(name) != null) {
+                assignedGlobals.put(name, var);
+            }
+        } else if (scopes.get(GLOBAL_SCOPE).get(name) != null) {
+            scopes.get(GLOBAL_SCOPE).put(name, var);
+        }
+    }
+}
@@ -1,53 +1,58 @@
 package oop.ex6.variables;
 
 /**
- * an object representing a variable, which has a name, value, type and a boolean field if the variable
- * is final or not
+ * an object representing a variable, which has a name, a type and flags - if the variable is final, if it
+ * was given a value and if it is a parameter of a method. the value itself is never kept, as the checks
+ * only need to know if there is one
  */
 public class Variable {
     /**
-     * a string representing the variables name
+     * the flag of a final variable
      */
-    private String name;
+    public static int FINAL = 1;
+    /**
+     * the flag of a variable that was given a value
+     */
+    public static int INITIALIZED = 2;
+    /**
+     * the flag of a parameter of a method
+     */
+    public static int PARAMETER = 4;
+    /**
+     * all of the types, by their ordinal
+     */
+    private static VariableFactory.Type[] TYPES = VariableFactory.Type.values();
     /**
-     * the variables type
+     * the variables name, interned so variables with the same name share it
      */
-    private VariableFactory.Type type;
+    private String name;
     /**
-     * a string representing the variables value
+     * the ordinal of the variables type
      */
-    private String value;
+    private byte type;
     /**
-     * is the variable final
+     * the flags of the variable
      */
-    private boolean isFinal;
+    private byte flags;
 
     /**
-     * a constructor for a variable that has all elements
-     *
-     * @param name    - name of the variable
-     * @param value   - value of the variable
-     * @param isFinal - is the variable final or not
-     * @param type    - type of the variable
+     * @param name  - name of the variable
+     * @param type  - type of the variable
+     * @param flags - the flags of the variable, FINAL, INITIALIZED and PARAMETER
      */
-    public Variable(String name, String value, boolean isFinal, VariableFactory.Type type) {
-        this.name = name;
-        this.value = value;
-        this.type = type;
-        this.isFinal = isFinal;
+    public Variable(String name, VariableFactory.Type type, int flags) {
+        this(name.intern(), (byte) type.ordinal(), (byte) flags);
     }
 
     /**
-     * a constructor for a variable which value isn't assigned yet
-     *
-     * @param name    - name of the variable
-     * @param isFinal - is the variable final or not
-     * @param type    - type of the variable
+     * @param name  - interned name of the variable
+     * @param type  - the ordinal of the type of the variable
+     * @param flags - the flags of the variable
      */
-    public Variable(String name, boolean isFinal, VariableFactory.Type type) {
+    private Variable(String name, byte type, byte flags) {
         this.name = name;
         this.type = type;
-        this.isFinal = isFinal;
+        this.flags = flags;
     }
 
     /**
@@ -63,21 +68,35 @@ public class Variable {
      * @return - the vars type
      */
     public VariableFactory.Type getType() {
-        return type;
+        return TYPES[type];
     }
 
     /**
-     * @return - the vars value;
+     * @return - is the variable final or not
      */
-    public String getValue() {
-        return this.value;
+    public boolean isFinal() {
+        return (flags & FINAL) != 0;
     }
 
     /**
-     * @return - is the variable final or not
+     * @return - true if the variable was given a value
      */
-    public boolean isFinal() {
-        return this.isFinal;
+    public boolean isInitialized() {
+        return (flags & INITIALIZED) != 0;
     }
 
+    /**
+     * @return - true if the variable is a parameter of a method
+     */
+    public boolean isParameter() {
+        return (flags & PARAMETER) != 0;
+    }
+
+    /**
+     * @return - the variable after it is given a value. this variable itself if it already has one, so an
+     * assignment doesn't create a new variable
+     */
+    public Variable assigned() {
+        return isInitialized() ? this : new Variable(name, type, (byte) (flags | INITIALIZED));
+    }
 }
@@ -7,6 +7,6 @@ public class VariableException extends Exception {
     private static final long serialVersionUID = 1l;
 
     public VariableException(String s) {
-        super(s);
+        super(s, null, false, false); // without a stack trace
     }
 }
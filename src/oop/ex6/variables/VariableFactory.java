@@ -1,7 +1,7 @@
 package oop.ex6.variables;
 
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,6 +13,10 @@ public class VariableFactory {
      * a string representing legal variable types
      */
     public static String VAR_TYPES = "\\s*(final\\s+)?((int|double|String|boolean|char)\\s+)(.+);\\s*";
+    /**
+     * a string representing a legal method parameter
+     */
+    private static String PARAMETER = "\\s*(final\\s+)?((int|double|String|boolean|char)\\s+)(.+)";
     /**
      * a string representing legal declaration
      */
@@ -49,26 +53,6 @@ public class VariableFactory {
      * pattern suits for variables names
      */
     public static Pattern VAR_NAME_PATTERN = Pattern.compile(VAR_NAME);
-    /**
-     * pattern suits for a declaration of an int
-     */
-    private static Pattern INT_PATTERN = Pattern.compile(INT_VALUE);
-    /**
-     * pattern suits for a declaration of a double
-     */
-    private static Pattern DOUBLE_PATTERN = Pattern.compile(DOUBLE_VALUE);
-    /**
-     * pattern suits for a declaration of a boolean
-     */
-    private static Pattern BOOLEAN_PATTERN = Pattern.compile(BOOLEAN_VALUE);
-    /**
-     * pattern suits for a declaration of a char
-     */
-    private static Pattern CHAR_PATTERN = Pattern.compile(CHAR_VALUE);
-    /**
-     * pattern suits for a declaration of a string
-     */
-    private static Pattern STRING_PATTERN = Pattern.compile(STRING_VALUE);
     /**
      * pattern suits for a variable declarations
      */
@@ -77,16 +61,20 @@ public class VariableFactory {
      * pattern suits for a whole line of multiple declarations
      */
     public static Pattern DECLARATION_LINE_PATTERN = Pattern.compile(VAR_TYPES);
+    /**
+     * pattern suits for the declaration of a single method parameter, which has no semicolon
+     */
+    private static Pattern PARAMETER_PATTERN = Pattern.compile(PARAMETER);
     /**
      * pattern suits for a variable value assignment
      */
     public static Pattern ASSIGNMENT_PATTERN = Pattern.compile(ASSIGNMENT);
     /**
-     * hash-map, mapping between a pattern and it's type
+     * the pattern of the values of each type, by the ordinal of the type. each one is compiled the first
+     * time a value of its type is checked, so a file only compiles the patterns of the types it uses
      */
-    public static Map<VariableFactory.Type, Pattern> typeToPattern = Map.of(Type.INT, INT_PATTERN,
-            Type.DOUBLE, DOUBLE_PATTERN, Type.BOOLEAN, BOOLEAN_PATTERN, Type.STRING, STRING_PATTERN,
-            Type.CHAR, CHAR_PATTERN);
+    private static AtomicReferenceArray<Pattern> valuePatterns =
+            new AtomicReferenceArray<>(Type.values().length);
     /**
      * ONE
      */
@@ -120,16 +108,48 @@ public class VariableFactory {
     }
 
 
+    /**
+     * @param type - a type
+     * @return - the pattern of the values of the type
+     */
+    public static Pattern valuePattern(Type type) {
+        Pattern pattern = valuePatterns.get(type.ordinal());
+        if (pattern == null) { // two threads may both compile it, and either one is kept
+            pattern = Pattern.compile(valueRegex(type));
+            valuePatterns.compareAndSet(type.ordinal(), null, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * @param type - a type
+     * @return - the regular expression of the values of the type
+     */
+    private static String valueRegex(Type type) {
+        switch (type) {
+            case INT:
+                return INT_VALUE;
+            case DOUBLE:
+                return DOUBLE_VALUE;
+            case STRING:
+                return STRING_VALUE;
+            case CHAR:
+                return CHAR_VALUE;
+            default:
+                return BOOLEAN_VALUE;
+        }
+    }
+
     /**
      * given a line, analyzes it and decides whether to create a new variable or assign an
      * existing variable a new value
      *
      * @param line   - a line to analyze
-     * @param variables - list of existing variables
+     * @param variables - table of existing variables
      * @param isParam - flag when a variable given is a method parameter
      * @return a list of variables created
      */
-    public static ArrayList<Variable> parseLine(String line, ArrayList<Variable> variables, boolean isParam)
+    public static ArrayList<Variable> parseLine(String line, SymbolTable variables, boolean isParam)
             throws VariableException {
         ArrayList<Variable> result = new ArrayList<>();
         boolean isAssignment = parseAssignment(line, variables, result);
@@ -142,32 +162,67 @@ public class VariableFactory {
 
     /**
      * given a variable declaration line, iterates through it, creates new variables
-     * and adds them to the lists
+     * and declares them in the innermost scope
      *
      * @param line      - a string representing the declaration
-     * @param variables - list of existing variables
+     * @param variables - table of existing variables
      * @param result    - a list to add the new variables declared
      * @return - true if the line was legal, false otherwise
      */
-    public static boolean parseDeclaration(String line, ArrayList<Variable> variables,
+    public static boolean parseDeclaration(String line, SymbolTable variables,
                                            ArrayList<Variable> result, boolean isParam)
             throws VariableException {
-        Matcher variablesLine = DECLARATION_LINE_PATTERN.matcher(line);
+        return parseDeclaration(line, DECLARATION_LINE_PATTERN.matcher(line), variables, result, isParam);
+    }
+
+    /**
+     * given a part of a method declaration line which declares a single parameter, creates it and
+     * declares it in the given table
+     *
+     * @param line      - the method declaration line
+     * @param start     - the start of the parameter in the line
+     * @param end       - the end of the parameter in the line
+     * @param variables - table of the parameters declared before
+     * @param result    - a list to add the new parameter to
+     * @return - true if the parameter was legal, false otherwise
+     */
+    public static boolean parseParameter(String line, int start, int end, SymbolTable variables,
+                                         ArrayList<Variable> result) throws VariableException {
+        return parseDeclaration(line, PARAMETER_PATTERN.matcher(line).region(start, end), variables, result,
+                true);
+    }
+
+    /**
+     * iterates through the declarations of a line, separated by commas, without copying them out of the
+     * line. the declarations are matched in place, so only their names and values become strings
+     *
+     * @param line          - the line
+     * @param variablesLine - a matcher of the line, or of a part of it, whose groups are the modifier, the
+     *                      type and the declarations
+     * @param variables     - table of existing variables
+     * @param result        - a list to add the new variables declared
+     * @param isParam       - flag when the variables declared are method parameters
+     * @return - true if the line was legal, false otherwise
+     */
+    private static boolean parseDeclaration(String line, Matcher variablesLine, SymbolTable variables,
+                                            ArrayList<Variable> result, boolean isParam)
+            throws VariableException {
         if (variablesLine.matches()) {
-            boolean isFinal = variablesLine.group(ONE) != null;
-            VariableFactory.Type type = getType(variablesLine.group(THREE));
-            String varsLine = variablesLine.group(FOUR);
-            if (varsLine.startsWith(",") || varsLine.endsWith(",")) {
+            boolean isFinal = variablesLine.start(ONE) >= 0;
+            VariableFactory.Type type = getType(line.charAt(variablesLine.start(THREE)));
+            int start = variablesLine.start(FOUR);
+            int end = variablesLine.end(FOUR);
+            if (line.charAt(start) == ',' || line.charAt(end - 1) == ',') {
                 return false;
             }
-            String[] singleVar = varsLine.split(",");
+            Matcher declaration = DECLARATION_PATTERN.matcher(line);
             boolean isOk = false;
-            for (String s : singleVar) {
-                if (isParam) {
-                    isOk = varDeclaration(s, type, isFinal, variables, true, result);
-                } else {
-                    isOk = varDeclaration(s, type, isFinal, variables, false, result);
-                }
+            for (int varStart = start; varStart <= end; ) {
+                int varEnd = line.indexOf(',', varStart);
+                varEnd = varEnd < 0 || varEnd > end ? end : varEnd;
+                isOk = varDeclaration(declaration.region(varStart, varEnd), type, isFinal, variables, isParam,
+                        result);
+                varStart = varEnd + ONE;
             }
             return isOk;
         }
@@ -175,35 +230,28 @@ public class VariableFactory {
     }
 
     /**
-     * given a variable declaration line, breaks it into name, value etc. and creates a matching variable
+     * given a variable declaration, breaks it into name, value etc. and creates a matching variable
      *
-     * @param variable             - line of variable to create
+     * @param variable             - a matcher whose region is the declaration of the variable to create
      * @param type                 - type of the variable to create
      * @param isFinal              - is the variable supposed to be final
-     * @param variableDeclarations - list of existing variables in the program
+     * @param variableDeclarations - table of existing variables in the program
      * @param isParam              - is the variable a methods parameter
      * @param result               - a list to add the newly created variable to
      * @return - true if succeeded, false otherwise
      */
-    private static boolean varDeclaration(String variable, VariableFactory.Type type, boolean isFinal,
-                                          ArrayList<Variable> variableDeclarations, boolean isParam,
+    private static boolean varDeclaration(Matcher variable, VariableFactory.Type type, boolean isFinal,
+                                          SymbolTable variableDeclarations, boolean isParam,
                                           ArrayList<Variable> result) throws VariableException {
-        Matcher m = DECLARATION_PATTERN.matcher(variable);
-        if (m.matches()) {
-            String name = m.group(ONE);
-            String value = m.group(THREE);
+        if (variable.matches()) {
+            String name = variable.group(ONE);
+            String value = variable.group(THREE);
             VariableValidation.isCompatible(name, value, isFinal, variableDeclarations, isParam);
-            Variable var;
-            if (value == null) { // declaration of a variable without a value
-                if (isParam) {
-                    var = createVariableWithValue(name, "", type, isFinal);
-                    result.add(var);
-                    variableDeclarations.add(var);
-                    return true;
-                }
-                var = createValuelessVariable(name, type, isFinal);
+            if (value == null) { // declaration of a variable without a value, a parameter is given one
+                Variable var = isParam ? createParameter(name, type, isFinal) :
+                        createValuelessVariable(name, type, isFinal);
                 result.add(var);
-                variableDeclarations.add(var);
+                variableDeclarations.declare(var);
                 return true;
             }
             return createVariable(name, value, type, isFinal, variableDeclarations, result);
@@ -214,19 +262,19 @@ public class VariableFactory {
     /**
      * @param line                 -  given a variable assignment line, assigns the variable with the
      *                             given value
-     * @param variableDeclarations - list of existing variables to check a variable with the same name and
+     * @param variableDeclarations - table of existing variables to check a variable with the same name and
      *                             type was created.
      * @param result               - a list to a new variable if needed
      * @return - true if succeeded, false otherwise
      */
-    public static boolean parseAssignment(String line, ArrayList<Variable> variableDeclarations,
+    public static boolean parseAssignment(String line, SymbolTable variableDeclarations,
                                           ArrayList<Variable> result)
             throws VariableException {
         Matcher m = ASSIGNMENT_PATTERN.matcher(line);
         if (m.matches()) {
             String name = m.group(ONE);
             String value = m.group(THREE);
-            Variable var = VariableValidation.isContain(name, variableDeclarations);
+            Variable var = variableDeclarations.lookup(name);
             if (var == null) {
                 return false;
             }
@@ -234,26 +282,33 @@ public class VariableFactory {
             if (isFinal) {
                 throw new VariableException(FINAL_ASSIGNMENT);
             }
-            return createVariable(name, value, var.getType(), false, variableDeclarations, result);
+            if (!isValueLegal(value, var.getType(), variableDeclarations)) {
+                return false;
+            }
+            Variable assigned = var.assigned();
+            result.add(assigned);
+            variableDeclarations.assign(assigned);
+            return true;
         }
         return false;
     }
 
     /**
-     * returns the type of variable matching a given string
+     * returns the type of variable matching a given type name. the names of the types start with
+     * different letters, so the first letter is enough
      *
-     * @param type - a string representing a variables type
-     * @return the type matching the given string
+     * @param type - the first letter of a variables type
+     * @return the type matching the given letter
      */
-    private static VariableFactory.Type getType(String type) {
+    private static VariableFactory.Type getType(char type) {
         switch (type) {
-            case ("int"):
+            case ('i'):
                 return Type.INT;
-            case ("double"):
+            case ('d'):
                 return Type.DOUBLE;
-            case ("char"):
+            case ('c'):
                 return Type.CHAR;
-            case ("boolean"):
+            case ('b'):
                 return Type.BOOLEAN;
             default:
                 return Type.STRING;
@@ -261,34 +316,56 @@ public class VariableFactory {
     }
 
     /**
-     * creates a variable matching all given elements
+     * creates a variable matching all given elements and declares it in the innermost scope
      *
      * @param name                 - name of the new variable to create
      * @param value                - value of the new variable to create
      * @param varType              - type of the new variable to create
      * @param isFinal              - is the variable final or not
-     * @param variableDeclarations - list of existing variables to check a variable with the same name and
+     * @param variableDeclarations - table of existing variables to check a variable with the same name and
      *                             type was created.
      * @return a new variable with all it's elements
      */
     public static boolean createVariable(String name, String value, VariableFactory.Type varType,
-                                         boolean isFinal, ArrayList<Variable> variableDeclarations,
+                                         boolean isFinal, SymbolTable variableDeclarations,
                                          ArrayList<Variable> result) {
-        String varValue = value;
-        Variable var;
-        if (VariableValidation.checkValue(varValue, varType)) {
-            var = createVariableWithValue(name, varValue, varType, isFinal);
-            result.add(var);
-            variableDeclarations.add(var);
-            return true;
-        } else if (VariableValidation.checkVariableValue(value, varType, variableDeclarations)) {
-            varValue = VariableValidation.isContain(value, variableDeclarations).getValue();
-            var = createVariableWithValue(name, varValue, varType, isFinal);
-            result.add(var);
-            variableDeclarations.add(var);
-            return true;
+        Variable var = valuedVariable(name, value, varType, isFinal, variableDeclarations);
+        if (var == null) {
+            return false;
         }
-        return false;
+        result.add(var);
+        variableDeclarations.declare(var);
+        return true;
+    }
+
+    /**
+     * creates a variable with the given value, which may be a literal or the name of another variable
+     *
+     * @param name                 - name of the new variable to create
+     * @param value                - value of the new variable to create
+     * @param varType              - type of the new variable to create
+     * @param isFinal              - is the variable final or not
+     * @param variableDeclarations - table of existing variables, in case the value is a variable name
+     * @return a new variable with all it's elements, null if the value doesn't fit the type
+     */
+    private static Variable valuedVariable(String name, String value, VariableFactory.Type varType,
+                                           boolean isFinal, SymbolTable variableDeclarations) {
+        if (isValueLegal(value, varType, variableDeclarations)) {
+            return createVariableWithValue(name, varType, isFinal);
+        }
+        return null;
+    }
+
+    /**
+     * @param value                - a literal or the name of another variable
+     * @param varType              - the type given the value
+     * @param variableDeclarations - table of existing variables, in case the value is a variable name
+     * @return - true if the value can be given to the type
+     */
+    private static boolean isValueLegal(String value, VariableFactory.Type varType,
+                                        SymbolTable variableDeclarations) {
+        return VariableValidation.checkValue(value, varType) ||
+                VariableValidation.checkVariableValue(value, varType, variableDeclarations);
     }
 
     /**
@@ -301,21 +378,33 @@ public class VariableFactory {
      */
     private static Variable createValuelessVariable(String name, VariableFactory.Type type,
                                                     boolean isFinal) {
-        return new Variable(name, isFinal, type);
+        return new Variable(name, type, isFinal ? Variable.FINAL : 0);
+    }
+
+    /**
+     * creates a parameter of a method, which is given a value by each call
+     *
+     * @param name    - name of the parameter
+     * @param type    - type of the parameter
+     * @param isFinal - flag, true if the parameter is final
+     * @return a new variable with all it's elements
+     */
+    private static Variable createParameter(String name, VariableFactory.Type type, boolean isFinal) {
+        return new Variable(name, type, (isFinal ? Variable.FINAL : 0) | Variable.INITIALIZED |
+                Variable.PARAMETER);
     }
 
     /**
      * creates a variable with a value
      *
      * @param name    - name of the variable
-     * @param value   - value of the variable
      * @param type    - type of the variable
      * @param isFinal - flag, true if the variable is final
      * @return a new variable with all it's elements
      */
-    private static Variable createVariableWithValue(String name, String value, VariableFactory.Type type,
+    private static Variable createVariableWithValue(String name, VariableFactory.Type type,
                                                     boolean isFinal) {
-        return new Variable(name, value, isFinal, type);
+        return new Variable(name, type, (isFinal ? Variable.FINAL : 0) | Variable.INITIALIZED);
     }
 
 
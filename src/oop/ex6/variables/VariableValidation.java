@@ -1,6 +1,5 @@
 package oop.ex6.variables;
 
-import java.util.ArrayList;
 import java.util.regex.Matcher;
 
 /**
@@ -22,35 +21,24 @@ public class VariableValidation {
     private static String ASSIGNED_PARAMETERS = "assignment is not allowed to methods' parameters";
 
     /**
-     * checks if a variable was already declared
-     * @param name - name of the variable
-     * @param variableDeclarations - list of existing variables in the program
-     * @return the variable, null if it doesn't exist in the list
-     */
-    public static Variable isContain(String name, ArrayList<Variable> variableDeclarations) {
-        for (Variable var : variableDeclarations) {
-            if (var.getName().equals(name)) {
-                return var;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * checks if a variable declaration is legal
+     * checks if a variable declaration is legal. the new variable hides any variable of the same name from
+     * its own value, so a value which is the name of the variable itself is illegal even when an outer
+     * scope has a variable of that name, which the value would be found as otherwise
      *
      * @param name                 - name of the variable to check
      * @param value                - value to be assigned to the variable
      * @param isFinal              - is the variable going to be final
-     * @param variableDeclarations - list other variables to check if the new variables name is included
+     * @param variableDeclarations - table of the variables, to check if the innermost scope already has
+     *                             the new variables name
      * @param isParam - is the variable a methods parameter
      * @return true if legal
      * @throws VariableException
      */
     public static boolean isCompatible(String name, String value, boolean isFinal,
-                                       ArrayList<Variable> variableDeclarations, boolean isParam)
+                                       SymbolTable variableDeclarations, boolean isParam)
             throws VariableException {
-        if (VariableValidation.isContain(name, variableDeclarations) != null) {
+        if (variableDeclarations.lookupLocal(name) != null || (isOwnName(name, value) &&
+                variableDeclarations.lookup(name) != null)) {
             throw new VariableException(USED_VAR_NAME);
         }
         if (isFinal && value == null && !isParam) {
@@ -62,6 +50,34 @@ public class VariableValidation {
         return true;
     }
 
+    /**
+     * @param name  - name of a declared variable
+     * @param value - the value given to it, null if it has none
+     * @return - true if the value is the name of the variable itself
+     */
+    private static boolean isOwnName(String name, String value) {
+        if (value == null) {
+            return false;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && isSpace(value.charAt(start))) {
+            start++;
+        }
+        while (end > start && isSpace(value.charAt(end - 1))) {
+            end--;
+        }
+        return end - start == name.length() && value.startsWith(name, start);
+    }
+
+    /**
+     * @param c - a character
+     * @return - true if the character is a space of the patterns, as \s matches
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
     /**
      * checks if a given value matches a given type
      *
@@ -70,7 +86,7 @@ public class VariableValidation {
      * @return true if the value fits the type
      */
     public static boolean checkValue(String value, VariableFactory.Type type) {
-        Matcher m1 = VariableFactory.typeToPattern.get(type).matcher(value);
+        Matcher m1 = VariableFactory.valuePattern(type).matcher(value);
         return m1.matches();
     }
 
@@ -79,11 +95,11 @@ public class VariableValidation {
      *
      * @param value     - the name of the variable which value is being used
      * @param type      - type to check
-     * @param variables - list of variables, to check if the variable exists in
+     * @param variables - table of variables, to check if the variable exists in
      * @return true if the assignment is legal
      */
     public static boolean checkVariableValue(String value, VariableFactory.Type type,
-                                             ArrayList<Variable> variables) {
+                                             SymbolTable variables) {
         Matcher m2 = VariableFactory.VAR_NAME_PATTERN.matcher(value);
         if (m2.matches()) {
             return isTypeLegal(value, type, variables);
@@ -98,13 +114,13 @@ public class VariableValidation {
      *
      * @param existedVar - an existed variable name in the file
      * @param type       - type of the new variable
-     * @param variables  - list of existing variables
+     * @param variables  - table of existing variables
      * @return true if the assigned variable's type is legal
      */
     public static boolean isTypeLegal(String existedVar, VariableFactory.Type type,
-                                      ArrayList<Variable> variables) {
-        Variable existingVar = isContain(existedVar, variables);
-        if (existingVar == null || existingVar.getValue() == null) { // trying to assign a variable to a
+                                      SymbolTable variables) {
+        Variable existingVar = variables.lookup(existedVar);
+        if (existingVar == null || !existingVar.isInitialized()) { // trying to assign a variable to a
             // non-existing variable or uninitialized variable
             return false;
         }